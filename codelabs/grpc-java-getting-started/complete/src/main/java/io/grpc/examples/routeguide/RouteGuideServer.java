@@ -32,9 +32,12 @@ import java.util.logging.Logger;
  */
 public class RouteGuideServer {
   private static final Logger logger = Logger.getLogger(RouteGuideServer.class.getName());
+  /** How often the per-method call statistics are logged. */
+  private static final long STATS_LOG_PERIOD_SECONDS = 60;
 
   private final int port;
   private final Server server;
+  private final ServerStats stats = new ServerStats(RouteGuideGrpc.getServiceDescriptor());
 
   public RouteGuideServer(int port) throws IOException {
     this(port, RouteGuideUtil.getDefaultFeaturesFile());
@@ -50,6 +53,7 @@ public class RouteGuideServer {
   public RouteGuideServer(ServerBuilder<?> serverBuilder, int port, Collection<Feature> features) {
     this.port = port;
     server = serverBuilder.addService(new RouteGuideService(features))
+        .addStreamTracerFactory(stats)
         .build();
   }
 
@@ -57,6 +61,7 @@ public class RouteGuideServer {
   public void start() throws IOException {
     server.start();
     logger.info("Server started, listening on " + port);
+    stats.logEvery(STATS_LOG_PERIOD_SECONDS);
     Runtime.getRuntime().addShutdownHook(new Thread() {
       @Override
       public void run() {
@@ -67,6 +72,7 @@ public class RouteGuideServer {
         } catch (InterruptedException e) {
           e.printStackTrace(System.err);
         }
+        System.err.println("*** " + stats);
         System.err.println("*** server shut down");
       }
     });
@@ -74,6 +80,7 @@ public class RouteGuideServer {
 
   /** Stop serving requests and shutdown resources. */
   public void stop() throws InterruptedException {
+    stats.stopLogging();
     if (server != null) {
       server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
     }
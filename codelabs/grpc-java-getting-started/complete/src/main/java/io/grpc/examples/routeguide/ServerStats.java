@@ -0,0 +1,243 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerStreamTracer;
+import io.grpc.ServiceDescriptor;
+import io.grpc.Status;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Per-method statistics of the calls a server handles: latency, messages per stream, bytes on the
+ * wire and active streams.
+ *
+ * <p>Install it with {@link io.grpc.ServerBuilder#addStreamTracerFactory}. Unlike an interceptor,
+ * a stream tracer sees the wire size of each message and every stream the server accepts, even
+ * those it rejects before reaching the service.
+ *
+ * <p>Recording is cheap enough to leave on: the per-method state is created up front, counters are
+ * {@link LongAdder}s and histograms are HdrHistogram {@link Recorder}s, whose writers never block
+ * or allocate. The only allocation per call is its tracer. Readers swap the recorders' histograms
+ * out under a lock that recording never takes.
+ */
+final class ServerStats extends ServerStreamTracer.Factory {
+  private static final Logger logger = Logger.getLogger(ServerStats.class.getName());
+
+  /** Latencies above this many microseconds are recorded as this value. */
+  private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+  /** Message counts above this are recorded as this value. */
+  private static final long MAX_MESSAGES = 1 << 20;
+  /** Histogram precision. Two digits keep each histogram at a few kilobytes. */
+  private static final int SIGNIFICANT_DIGITS = 2;
+
+  private static final ServerStreamTracer UNTRACED = new ServerStreamTracer() {};
+
+  private final Map<String, MethodStats> methods;
+  private ScheduledExecutorService logExecutor;
+
+  /** Creates statistics for the methods of {@code services}; other methods are not recorded. */
+  ServerStats(ServiceDescriptor... services) {
+    Map<String, MethodStats> methods = new LinkedHashMap<>();
+    for (ServiceDescriptor service : services) {
+      for (MethodDescriptor<?, ?> method : service.getMethods()) {
+        methods.put(method.getFullMethodName(), new MethodStats(method.getFullMethodName()));
+      }
+    }
+    this.methods = Collections.unmodifiableMap(methods);
+  }
+
+  @Override
+  public ServerStreamTracer newServerStreamTracer(String fullMethodName, Metadata headers) {
+    MethodStats method = methods.get(fullMethodName);
+    if (method == null) {
+      return UNTRACED;
+    }
+    method.started.increment();
+    return new StreamTracer(method);
+  }
+
+  /** Logs the statistics of the past {@code periodSeconds} every {@code periodSeconds}. */
+  synchronized void logEvery(long periodSeconds) {
+    if (logExecutor != null) {
+      throw new IllegalStateException("Already logging");
+    }
+    logExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "server-stats");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    logExecutor.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        logger.info("Server statistics, last interval:\n" + report(true));
+      }
+    }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  /** Stops periodic logging. */
+  synchronized void stopLogging() {
+    if (logExecutor != null) {
+      logExecutor.shutdownNow();
+      logExecutor = null;
+    }
+  }
+
+  /**
+   * Returns a table of the statistics of each method that has seen calls. Counters are always
+   * totals; histograms cover the time since the previous report if {@code interval} is set, and
+   * the server's lifetime otherwise.
+   */
+  synchronized String report(boolean interval) {
+    StringBuilder report = new StringBuilder(String.format("%-44s %8s %6s %6s %9s %9s %9s %9s"
+        + " %11s %11s %10s %10s", "method", "calls", "active", "failed", "p50(us)", "p99(us)",
+        "p99.9(us)", "max(us)", "msgsIn p50", "msgsOut p50", "bytesIn", "bytesOut"));
+    for (MethodStats method : methods.values()) {
+      method.drain();
+      if (method.started.sum() == 0) {
+        continue;
+      }
+      Histogram latency = interval ? method.latencyInterval : method.latencyTotal;
+      Histogram in = interval ? method.inInterval : method.inTotal;
+      Histogram out = interval ? method.outInterval : method.outTotal;
+      report.append(String.format("%n%-44s %8d %6d %6d %9d %9d %9d %9d %11d %11d %10d %10d",
+          method.name, method.finished.sum(), method.active(), method.failed.sum(),
+          latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+          latency.getValueAtPercentile(99.9), latency.getMaxValue(),
+          in.getValueAtPercentile(50), out.getValueAtPercentile(50),
+          method.bytesIn.sum(), method.bytesOut.sum()));
+    }
+    return report.toString();
+  }
+
+  @Override
+  public String toString() {
+    return "ServerStats\n" + report(false);
+  }
+
+  /** The statistics of one method. */
+  private static final class MethodStats {
+    final String name;
+    final LongAdder started = new LongAdder();
+    final LongAdder finished = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    final LongAdder bytesIn = new LongAdder();
+    final LongAdder bytesOut = new LongAdder();
+    final Recorder latency = new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    final Recorder messagesIn = new Recorder(MAX_MESSAGES, SIGNIFICANT_DIGITS);
+    final Recorder messagesOut = new Recorder(MAX_MESSAGES, SIGNIFICANT_DIGITS);
+
+    // Guarded by the enclosing ServerStats. Swapped with the recorders on each drain.
+    Histogram latencyInterval;
+    Histogram inInterval;
+    Histogram outInterval;
+    final Histogram latencyTotal = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+    final Histogram inTotal = new Histogram(MAX_MESSAGES, SIGNIFICANT_DIGITS);
+    final Histogram outTotal = new Histogram(MAX_MESSAGES, SIGNIFICANT_DIGITS);
+
+    MethodStats(String name) {
+      this.name = name;
+    }
+
+    long active() {
+      // finished is read first so that a concurrent call never makes the result negative.
+      long finished = this.finished.sum();
+      return started.sum() - finished;
+    }
+
+    /** Moves the values recorded since the last drain into the interval and total histograms. */
+    void drain() {
+      latencyInterval = latency.getIntervalHistogram(latencyInterval);
+      inInterval = messagesIn.getIntervalHistogram(inInterval);
+      outInterval = messagesOut.getIntervalHistogram(outInterval);
+      latencyTotal.add(latencyInterval);
+      inTotal.add(inInterval);
+      outTotal.add(outInterval);
+    }
+  }
+
+  /** Counts the messages of one stream and records them when it closes. */
+  private static final class StreamTracer extends ServerStreamTracer {
+    private static final AtomicIntegerFieldUpdater<StreamTracer> messagesInUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(StreamTracer.class, "messagesIn");
+    private static final AtomicIntegerFieldUpdater<StreamTracer> messagesOutUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(StreamTracer.class, "messagesOut");
+    private static final AtomicIntegerFieldUpdater<StreamTracer> closedUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(StreamTracer.class, "closed");
+
+    private final MethodStats method;
+    private final long startNanos = System.nanoTime();
+    private volatile int messagesIn;
+    private volatile int messagesOut;
+    private volatile int closed;
+
+    StreamTracer(MethodStats method) {
+      this.method = method;
+    }
+
+    @Override
+    public void inboundMessage(int seqNo) {
+      messagesInUpdater.incrementAndGet(this);
+    }
+
+    @Override
+    public void outboundMessage(int seqNo) {
+      messagesOutUpdater.incrementAndGet(this);
+    }
+
+    @Override
+    public void inboundWireSize(long bytes) {
+      method.bytesIn.add(bytes);
+    }
+
+    @Override
+    public void outboundWireSize(long bytes) {
+      method.bytesOut.add(bytes);
+    }
+
+    @Override
+    public void streamClosed(Status status) {
+      if (!closedUpdater.compareAndSet(this, 0, 1)) {
+        return;
+      }
+      long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+      method.latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+      method.messagesIn.recordValue(Math.min(messagesIn, MAX_MESSAGES));
+      method.messagesOut.recordValue(Math.min(messagesOut, MAX_MESSAGES));
+      if (!status.isOk()) {
+        method.failed.increment();
+      }
+      method.finished.increment();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.codelabs.helloworld.GreeterGrpc;
+import io.grpc.codelabs.helloworld.HelloReply;
+import io.grpc.codelabs.helloworld.HelloRequest;
+import io.grpc.codelabs.routeguide.Feature;
+import io.grpc.codelabs.routeguide.Point;
+import io.grpc.codelabs.routeguide.Rectangle;
+import io.grpc.codelabs.routeguide.RouteGuideGrpc;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.opentelemetry.GrpcOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what gRPC's OpenTelemetry instrumentation adds to a call, with each
+ * {@link TelemetryProfile} installed on both the client and the server, against no
+ * instrumentation at all.
+ *
+ * <p>Calls go over the in-process transport, so the time per operation is almost all CPU spent by
+ * gRPC and the instrumentation rather than by sockets. {@code sayHello} is a unary call;
+ * {@code listFeatures} streams {@value #FEATURES} features. The metrics are aggregated as they
+ * would be for an exporter, but only collected by {@code collect}, which measures the cost of an
+ * export, e.g. a Prometheus scrape, after {@value #WARM_UP_CALLS} calls of each kind. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=GrpcOpenTelemetryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(time = 1)
+@Measurement(time = 1)
+public class GrpcOpenTelemetryBenchmark {
+  static final int FEATURES = 64;
+  static final int WARM_UP_CALLS = 100;
+
+  /** {@code none}, or the {@link TelemetryProfile#flag()} of a profile. */
+  @Param({"none", "default", "all", "low_overhead"})
+  public String telemetry;
+
+  private OpenTelemetrySdk openTelemetrySdk;
+  private final ManualReader reader = new ManualReader();
+  private Server server;
+  private ManagedChannel channel;
+  private GreeterGrpc.GreeterBlockingStub greeter;
+  private RouteGuideGrpc.RouteGuideBlockingStub routeGuide;
+  private final HelloRequest helloRequest = HelloRequest.newBuilder().setName("world").build();
+  private final Rectangle rectangle = Rectangle.newBuilder()
+      .setLo(Point.newBuilder().setLatitude(400000000).setLongitude(-750000000))
+      .setHi(Point.newBuilder().setLatitude(420000000).setLongitude(-730000000))
+      .build();
+
+  @Setup
+  public void setUp() throws Exception {
+    String name = "opentelemetry-benchmark";
+    InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(name)
+        .addService(new OpenTelemetryServer.GreeterImpl())
+        // Domain metrics are left out to measure gRPC's instrumentation alone.
+        .addService(new RouteGuideService(
+            RouteGuideUtil.parseFeatures(RouteGuideUtil.getDefaultFeaturesFile()),
+            OpenTelemetry.noop().getMeter(RouteGuideMetrics.METER_NAME)));
+    InProcessChannelBuilder channelBuilder = InProcessChannelBuilder.forName(name);
+    if (!"none".equals(telemetry)) {
+      TelemetryProfile profile = TelemetryProfile.fromFlag(telemetry);
+      openTelemetrySdk = OpenTelemetrySdk.builder()
+          .setMeterProvider(profile.configure(SdkMeterProvider.builder())
+              .registerMetricReader(reader)
+              .build())
+          .build();
+      GrpcOpenTelemetry grpcOpenTelemetry = profile.configure(GrpcOpenTelemetry.newBuilder())
+          .sdk(openTelemetrySdk)
+          .build();
+      grpcOpenTelemetry.configureServerBuilder(serverBuilder);
+      grpcOpenTelemetry.configureChannelBuilder(channelBuilder);
+    }
+    server = serverBuilder.build().start();
+    channel = channelBuilder.build();
+    greeter = GreeterGrpc.newBlockingStub(channel);
+    routeGuide = RouteGuideGrpc.newBlockingStub(channel);
+    for (int i = 0; i < WARM_UP_CALLS; i++) {
+      sayHello();
+      listFeatures();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    if (openTelemetrySdk != null) {
+      openTelemetrySdk.close();
+    }
+  }
+
+  @Benchmark
+  public HelloReply sayHello() {
+    return greeter.sayHello(helloRequest);
+  }
+
+  @Benchmark
+  public int listFeatures() {
+    int count = 0;
+    for (Iterator<Feature> features = routeGuide.listFeatures(rectangle);
+        features.hasNext(); features.next()) {
+      count++;
+    }
+    if (count != FEATURES) {
+      throw new IllegalStateException("Expected " + FEATURES + " features, got " + count);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public Collection<MetricData> collect() {
+    return reader.collect();
+  }
+
+  /**
+   * Makes the SDK aggregate measurements, as it only does for registered readers, and collects
+   * them on demand.
+   */
+  private static final class ManualReader implements MetricReader {
+    private volatile CollectionRegistration registration;
+
+    @Override
+    public void register(CollectionRegistration registration) {
+      this.registration = registration;
+    }
+
+    Collection<MetricData> collect() {
+      return registration == null
+          ? Collections.<MetricData>emptyList() : registration.collectAllMetrics();
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+      return AggregationTemporality.CUMULATIVE;
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.util.concurrent.EventExecutor;
+import io.grpc.netty.shaded.io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reports how saturated the Netty event loops of a server are.
+ *
+ * <p>Each loop runs a probe every {@code probePeriodMillis}, which records how late it ran in a
+ * {@code netty.eventloop.lag} histogram. A loop busy with I/O or blocked by a handler delays the
+ * probe like any other task, so a growing lag means the transport itself is the bottleneck. The
+ * tasks queued on all loops are reported as a gauge.
+ */
+final class EventLoopMetrics implements AutoCloseable {
+  /** Bucket boundaries in seconds; an idle loop runs the probe within about a millisecond. */
+  private static final List<Double> LAG_BUCKETS = Arrays.asList(
+      0.0005, 0.001, 0.002, 0.005, 0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1.0);
+
+  private final List<Future<?>> probes = new ArrayList<>();
+  private final ObservableLongGauge pendingTasks;
+
+  EventLoopMetrics(final EventLoopGroup group, Meter meter, long probePeriodMillis) {
+    DoubleHistogram lag = meter.histogramBuilder("netty.eventloop.lag")
+        .setDescription("How late a periodic probe task ran on an event loop")
+        .setUnit("s")
+        .setExplicitBucketBoundariesAdvice(LAG_BUCKETS)
+        .build();
+    long periodNanos = TimeUnit.MILLISECONDS.toNanos(probePeriodMillis);
+    for (EventExecutor loop : group) {
+      probes.add(loop.scheduleAtFixedRate(
+          new Probe(lag, periodNanos), periodNanos, periodNanos, TimeUnit.NANOSECONDS));
+    }
+    pendingTasks = meter.gaugeBuilder("netty.eventloop.pending_tasks")
+        .setDescription("Tasks queued on the event loops")
+        .setUnit("{task}")
+        .ofLongs()
+        .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+          @Override
+          public void accept(ObservableLongMeasurement measurement) {
+            long pending = 0;
+            for (EventExecutor loop : group) {
+              if (loop instanceof SingleThreadEventExecutor) {
+                pending += ((SingleThreadEventExecutor) loop).pendingTasks();
+              }
+            }
+            measurement.record(pending);
+          }
+        });
+  }
+
+  /** Stops the probes. */
+  @Override
+  public void close() {
+    for (Future<?> probe : probes) {
+      probe.cancel(false);
+    }
+    pendingTasks.close();
+  }
+
+  /** Records how far behind its fixed-rate schedule it runs. */
+  private static final class Probe implements Runnable {
+    private final DoubleHistogram lag;
+    private final long periodNanos;
+    // Only accessed by the event loop.
+    private long dueNanos;
+
+    Probe(DoubleHistogram lag, long periodNanos) {
+      this.lag = lag;
+      this.periodNanos = periodNanos;
+      this.dueNanos = System.nanoTime() + periodNanos;
+    }
+
+    @Override
+    public void run() {
+      lag.record(Math.max(0, System.nanoTime() - dueNanos) / 1e9);
+      dueNanos += periodNanos;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongGauge;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A thread pool for the application callbacks of a gRPC server that reports how busy it is:
+ * queued tasks, active and pooled threads as gauges, and how long tasks waited for a thread and
+ * then ran as histograms.
+ *
+ * <p>Task wait time is the executor's share of a slow call. When it grows while the event loops
+ * keep up (see {@link EventLoopMetrics}), the server needs more callback threads or cheaper
+ * handlers; a fixed pool shows the same as a growing queue.
+ */
+final class InstrumentedExecutor extends ThreadPoolExecutor {
+  private static final AttributeKey<String> NAME = AttributeKey.stringKey("executor.name");
+  /** Bucket boundaries in seconds, from the microseconds a task should wait upwards. */
+  private static final List<Double> TIME_BUCKETS = Arrays.asList(
+      0.00001, 0.00005, 0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1.0, 5.0);
+
+  private final Attributes attributes;
+  private final DoubleHistogram waitTime;
+  private final DoubleHistogram runTime;
+  private final List<ObservableLongGauge> gauges;
+
+  /**
+   * Creates a pool named {@code name} with {@code threads} threads, recording its metrics on
+   * {@code meter}. With zero threads, the pool behaves like gRPC's default executor: it grows
+   * without bound instead of queueing tasks and reuses threads idle for less than a minute.
+   */
+  InstrumentedExecutor(String name, int threads, Meter meter) {
+    super(threads, threads > 0 ? threads : Integer.MAX_VALUE,
+        60, TimeUnit.SECONDS, threads > 0
+            ? new LinkedBlockingQueue<Runnable>() : new SynchronousQueue<Runnable>(),
+        daemonThreads(name));
+    this.attributes = Attributes.of(NAME, name);
+    this.waitTime = meter.histogramBuilder("executor.task.wait_time")
+        .setDescription("Time tasks waited for a thread")
+        .setUnit("s")
+        .setExplicitBucketBoundariesAdvice(TIME_BUCKETS)
+        .build();
+    this.runTime = meter.histogramBuilder("executor.task.run_time")
+        .setDescription("Time tasks ran")
+        .setUnit("s")
+        .setExplicitBucketBoundariesAdvice(TIME_BUCKETS)
+        .build();
+    final BlockingQueue<Runnable> queue = getQueue();
+    this.gauges = Arrays.asList(
+        meter.gaugeBuilder("executor.queue.size")
+            .setDescription("Tasks waiting for a thread")
+            .setUnit("{task}")
+            .ofLongs()
+            .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+              @Override
+              public void accept(ObservableLongMeasurement measurement) {
+                measurement.record(queue.size(), attributes);
+              }
+            }),
+        meter.gaugeBuilder("executor.threads.active")
+            .setDescription("Threads running a task")
+            .setUnit("{thread}")
+            .ofLongs()
+            .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+              @Override
+              public void accept(ObservableLongMeasurement measurement) {
+                measurement.record(getActiveCount(), attributes);
+              }
+            }),
+        meter.gaugeBuilder("executor.threads")
+            .setDescription("Threads in the pool")
+            .setUnit("{thread}")
+            .ofLongs()
+            .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+              @Override
+              public void accept(ObservableLongMeasurement measurement) {
+                measurement.record(getPoolSize(), attributes);
+              }
+            }));
+  }
+
+  private static ThreadFactory daemonThreads(final String name) {
+    return new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    super.execute(new TimedTask(command));
+  }
+
+  @Override
+  protected void terminated() {
+    for (ObservableLongGauge gauge : gauges) {
+      gauge.close();
+    }
+    super.terminated();
+  }
+
+  /** Records the wait and run time of a task. */
+  private final class TimedTask implements Runnable {
+    private final Runnable task;
+    private final long submitNanos = System.nanoTime();
+
+    TimedTask(Runnable task) {
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      long startNanos = System.nanoTime();
+      waitTime.record((startNanos - submitNanos) / 1e9, attributes);
+      try {
+        task.run();
+      } finally {
+        runTime.record((System.nanoTime() - startNanos) / 1e9, attributes);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import io.opentelemetry.instrumentation.runtimemetrics.java8.Classes;
+import io.opentelemetry.instrumentation.runtimemetrics.java8.Cpu;
+import io.opentelemetry.instrumentation.runtimemetrics.java8.GarbageCollector;
+import io.opentelemetry.instrumentation.runtimemetrics.java8.MemoryPools;
+import io.opentelemetry.instrumentation.runtimemetrics.java8.Threads;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Registers JVM runtime metrics: the OpenTelemetry runtime instrumentation's memory pool, GC pause,
+ * thread, class and CPU metrics, and the bytes allocated by all threads.
+ */
+final class JvmMetrics {
+  /** The instrumentation scope of the allocation metric. */
+  static final String METER_NAME = "io.grpc.codelabs.jvm";
+
+  private JvmMetrics() {}
+
+  /** Registers the metrics, returning the observers to close when done. */
+  static List<AutoCloseable> register(OpenTelemetry openTelemetry) {
+    List<AutoCloseable> observers = new ArrayList<>();
+    observers.addAll(MemoryPools.registerObservers(openTelemetry));
+    observers.addAll(GarbageCollector.registerObservers(openTelemetry));
+    observers.addAll(Threads.registerObservers(openTelemetry));
+    observers.addAll(Classes.registerObservers(openTelemetry));
+    observers.addAll(Cpu.registerObservers(openTelemetry));
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+      if (hotSpotThreads.isThreadAllocatedMemorySupported()) {
+        hotSpotThreads.setThreadAllocatedMemoryEnabled(true);
+        final AllocatedBytes allocatedBytes = new AllocatedBytes(hotSpotThreads);
+        observers.add(openTelemetry.getMeter(METER_NAME)
+            .counterBuilder("jvm.memory.allocated")
+            .setDescription("Bytes allocated on the heap by all threads")
+            .setUnit("By")
+            .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+              @Override
+              public void accept(ObservableLongMeasurement measurement) {
+                measurement.record(allocatedBytes.total());
+              }
+            }));
+      }
+    }
+    return observers;
+  }
+
+  /**
+   * Sums the bytes allocated by each thread since it started. What a thread allocates after the
+   * last collection before it ends is missed, so short-lived threads are undercounted.
+   */
+  private static final class AllocatedBytes {
+    private final com.sun.management.ThreadMXBean threads;
+    // Guarded by this.
+    private Map<Long, Long> lastByThread = new HashMap<>();
+    // Guarded by this.
+    private long total;
+
+    AllocatedBytes(com.sun.management.ThreadMXBean threads) {
+      this.threads = threads;
+    }
+
+    synchronized long total() {
+      long[] ids = threads.getAllThreadIds();
+      long[] bytes = threads.getThreadAllocatedBytes(ids);
+      Map<Long, Long> byThread = new HashMap<>(ids.length * 2);
+      for (int i = 0; i < ids.length; i++) {
+        if (bytes[i] < 0) {
+          // The thread ended after the ids were taken.
+          continue;
+        }
+        Long last = lastByThread.get(ids[i]);
+        total += bytes[i] - (last != null ? last : 0);
+        byThread.put(ids[i], bytes[i]);
+      }
+      lastByThread = byThread;
+      return total;
+    }
+  }
+}
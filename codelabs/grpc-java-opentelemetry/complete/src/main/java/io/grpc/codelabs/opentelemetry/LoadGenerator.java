@@ -0,0 +1,228 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.codelabs.helloworld.GreeterGrpc;
+import io.grpc.codelabs.helloworld.HelloReply;
+import io.grpc.codelabs.helloworld.HelloRequest;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.DoubleHistogram;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a number of concurrent {@code SayHello} calls going, optionally paced to a target rate, and
+ * records their latency through OpenTelemetry.
+ *
+ * <p>Each caller has one call outstanding at a time and starts the next when it completes, so the
+ * load never exceeds {@code concurrency} calls. With a target rate, each caller sends at fixed
+ * intervals instead and the latency is measured from when a call should have been sent. A server
+ * too slow for the target rate then shows up as growing latency, rather than as the generator
+ * quietly sending less.
+ *
+ * <p>Every call has a deadline, so a hung server fails calls instead of stalling the callers, and
+ * {@link #stop} cannot wait on a call forever.
+ */
+final class LoadGenerator {
+  private static final Logger logger = Logger.getLogger(LoadGenerator.class.getName());
+
+  /** The instrumentation scope of the load metrics. */
+  static final String METER_NAME = "io.grpc.codelabs.loadgen";
+
+  private static final AttributeKey<String> STATUS = AttributeKey.stringKey("grpc.status");
+  /** Finer than gRPC's duration buckets at the low end, where loopback calls are. */
+  private static final List<Double> LATENCY_BUCKETS = Arrays.asList(
+      0.0001, 0.0002, 0.0005, 0.001, 0.002, 0.005, 0.01, 0.02, 0.05, 0.1, 0.2, 0.5, 1.0, 2.0,
+      5.0, 10.0);
+  private static final long LOG_PERIOD_SECONDS = 10;
+  /** How much longer than a call's deadline {@link #stop} waits for it to complete. */
+  private static final long STOP_GRACE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final GreeterGrpc.GreeterStub stub;
+  private final int concurrency;
+  private final double qps;
+  private final long timeoutNanos;
+  private final HelloRequest request;
+  private final DoubleHistogram latency;
+  private final LongCounter calls;
+  private final Map<Status.Code, Attributes> statusAttributes = new EnumMap<>(Status.Code.class);
+  private final ScheduledExecutorService scheduler;
+  private final AtomicBoolean running = new AtomicBoolean();
+  private final CountDownLatch callersDone;
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private long startNanos;
+  private long lastLogCompleted;
+
+  /**
+   * Creates a generator of {@code concurrency} callers sending requests of {@code payloadBytes}
+   * bytes.
+   *
+   * @param qps the total rate at which to send calls, or zero to send each call as soon as the
+   *     caller's previous one completes
+   * @param timeout the deadline of each call, after it is sent
+   */
+  LoadGenerator(Channel channel, Meter meter, int concurrency, double qps, int payloadBytes,
+      long timeout, TimeUnit unit) {
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("timeout must be positive: " + timeout);
+    }
+    this.stub = GreeterGrpc.newStub(channel);
+    this.concurrency = concurrency;
+    this.qps = qps;
+    this.timeoutNanos = unit.toNanos(timeout);
+    char[] name = new char[payloadBytes];
+    Arrays.fill(name, 'x');
+    this.request = HelloRequest.newBuilder().setName(new String(name)).build();
+    this.latency = meter.histogramBuilder("loadgen.call.duration")
+        .setDescription("Time from when a call was due to be sent until it completed")
+        .setUnit("s")
+        .setExplicitBucketBoundariesAdvice(LATENCY_BUCKETS)
+        .build();
+    this.calls = meter.counterBuilder("loadgen.calls")
+        .setDescription("Calls completed by the load generator, by status")
+        .setUnit("{call}")
+        .build();
+    for (Status.Code code : Status.Code.values()) {
+      statusAttributes.put(code, Attributes.of(STATUS, code.name()));
+    }
+    this.callersDone = new CountDownLatch(concurrency);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "load-generator");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /** Starts the callers, spreading their first calls over one interval if pacing. */
+  void start() {
+    if (!running.compareAndSet(false, true)) {
+      throw new IllegalStateException("Already started");
+    }
+    startNanos = System.nanoTime();
+    long periodNanos = qps > 0 ? (long) (concurrency * 1e9 / qps) : 0;
+    for (int i = 0; i < concurrency; i++) {
+      long offsetNanos = periodNanos * i / concurrency;
+      Caller caller = new Caller(periodNanos, startNanos + offsetNanos);
+      scheduler.schedule(caller, offsetNanos, TimeUnit.NANOSECONDS);
+    }
+    scheduler.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        long total = completed.sum();
+        logger.info(String.format("%d calls in the last %d s (%.1f/s), %d failed in total",
+            total - lastLogCompleted, LOG_PERIOD_SECONDS,
+            (total - lastLogCompleted) / (double) LOG_PERIOD_SECONDS, failed.sum()));
+        lastLogCompleted = total;
+      }
+    }, LOG_PERIOD_SECONDS, LOG_PERIOD_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops sending calls and waits for the outstanding ones to complete, at most until their
+   * deadlines have passed and any paced caller has woken up once more.
+   */
+  void stop() throws InterruptedException {
+    running.set(false);
+    long periodNanos = qps > 0 ? (long) (concurrency * 1e9 / qps) : 0;
+    if (!callersDone.await(timeoutNanos + periodNanos + STOP_GRACE_NANOS, TimeUnit.NANOSECONDS)) {
+      logger.warning(callersDone.getCount() + " callers still had a call outstanding");
+    }
+    scheduler.shutdownNow();
+  }
+
+  @Override
+  public String toString() {
+    double seconds = (System.nanoTime() - startNanos) / 1e9;
+    return String.format("LoadGenerator{concurrency=%d, targetQps=%s, calls=%d, failed=%d,"
+        + " qps=%.1f}", concurrency, qps > 0 ? String.valueOf(qps) : "unlimited",
+        completed.sum(), failed.sum(), completed.sum() / seconds);
+  }
+
+  /** Sends one call after another. */
+  private final class Caller implements Runnable, StreamObserver<HelloReply> {
+    private final long periodNanos;
+    // Only accessed by the thread sending or completing the caller's single outstanding call.
+    private long dueNanos;
+
+    Caller(long periodNanos, long dueNanos) {
+      this.periodNanos = periodNanos;
+      this.dueNanos = dueNanos;
+    }
+
+    @Override
+    public void run() {
+      if (!running.get()) {
+        callersDone.countDown();
+        return;
+      }
+      stub.withDeadlineAfter(timeoutNanos, TimeUnit.NANOSECONDS).sayHello(request, this);
+    }
+
+    @Override
+    public void onNext(HelloReply reply) {}
+
+    @Override
+    public void onError(Throwable t) {
+      failed.increment();
+      complete(Status.fromThrowable(t).getCode());
+    }
+
+    @Override
+    public void onCompleted() {
+      complete(Status.Code.OK);
+    }
+
+    private void complete(Status.Code code) {
+      long now = System.nanoTime();
+      Attributes attributes = statusAttributes.get(code);
+      latency.record((now - dueNanos) / 1e9, attributes);
+      calls.add(1, attributes);
+      completed.increment();
+      if (periodNanos == 0) {
+        dueNanos = now;
+        run();
+        return;
+      }
+      dueNanos += periodNanos;
+      if (dueNanos - now > 0) {
+        scheduler.schedule(this, dueNanos - now, TimeUnit.NANOSECONDS);
+      } else {
+        run();
+      }
+    }
+  }
+}
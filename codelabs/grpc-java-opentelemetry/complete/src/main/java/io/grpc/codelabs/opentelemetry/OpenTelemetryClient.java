@@ -29,6 +29,8 @@ import io.grpc.opentelemetry.GrpcOpenTelemetry;
 import io.opentelemetry.exporter.prometheus.PrometheusHttpServer;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
@@ -72,23 +74,55 @@ public class OpenTelemetryClient {
     String target = "localhost:50051";
     // The port on which prometheus metrics are exposed.
     int prometheusPort = 9465;
+    // Load mode: the number of concurrent callers, their total rate and the request size.
+    int concurrency = 0;
+    double qps = 0;
+    int payloadBytes = 16;
+    long timeoutMillis = 10000;
+    // The gRPC metrics to record.
+    TelemetryProfile telemetryProfile = TelemetryProfile.DEFAULT;
     AtomicBoolean sendRpcs = new AtomicBoolean(true);
-    if (args.length > 0) {
-      if ("--help".equals(args[0])) {
-        System.err.println("Usage: [name [target [prometheusPort]]]");
+    List<String> positional = new ArrayList<>();
+    for (String arg : args) {
+      if ("--help".equals(arg)) {
+        System.err.println("Usage: [--option=value ...] [name [target [prometheusPort]]]");
         System.err.println("");
         System.err.println("  name    The name you wish to be greeted by. Defaults to " + user);
         System.err.println("  target  The server to connect to. Defaults to " + target);
         System.err.println("  prometheusPort  The port to expose prometheus metrics. Defaults to " + prometheusPort);
+        System.err.println("  --concurrency    Concurrent callers generating load instead of one");
+        System.err.println("                   greeting per second. Defaults to " + concurrency);
+        System.err.println("  --qps            Total calls per second of the callers; 0 sends");
+        System.err.println("                   as fast as they can. Defaults to " + qps);
+        System.err.println("  --payload_bytes  Size of the name sent by the callers. Defaults to "
+            + payloadBytes);
+        System.err.println("  --timeout_millis  Deadline of each of the callers' calls. Defaults"
+            + " to " + timeoutMillis);
+        System.err.println("  --telemetry_profile  default, all or low_overhead. Defaults to "
+            + telemetryProfile.flag());
         System.exit(1);
+      } else if (arg.startsWith("--concurrency=")) {
+        concurrency = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--qps=")) {
+        qps = Double.parseDouble(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--payload_bytes=")) {
+        payloadBytes = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--timeout_millis=")) {
+        timeoutMillis = Long.parseLong(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--telemetry_profile=")) {
+        telemetryProfile = TelemetryProfile.fromFlag(arg.substring(arg.indexOf('=') + 1));
+      } else {
+        positional.add(arg);
       }
-      user = args[0];
     }
-    if (args.length > 1) {
-      target = args[1];
+    if (positional.size() > 0) {
+      user = positional.get(0);
     }
-    if (args.length > 2) {
-      prometheusPort = Integer.parseInt(args[2]);
+    if (positional.size() > 1) {
+      target = positional.get(1);
+    }
+    if (positional.size() > 2) {
+      prometheusPort = Integer.parseInt(positional.get(2));
     }
 
     Thread mainThread = Thread.currentThread();
@@ -119,7 +153,7 @@ public class OpenTelemetryClient {
         .setPort(prometheusPort)
         .build();
 
-    SdkMeterProvider sdkMeterProvider = SdkMeterProvider.builder()
+    SdkMeterProvider sdkMeterProvider = telemetryProfile.configure(SdkMeterProvider.builder())
         .registerMetricReader(prometheusExporter)
         .build();
 
@@ -134,7 +168,8 @@ public class OpenTelemetryClient {
     //     3. grpc.client.attempt.rcvd_total_compressed_message_size
     //     4. grpc.client.attempt.duration
     //     5. grpc.client.call.duration
-    GrpcOpenTelemetry grpcOpenTelmetry = GrpcOpenTelemetry.newBuilder()
+    // --telemetry_profile=low_overhead only keeps the call duration.
+    GrpcOpenTelemetry grpcOpenTelmetry = telemetryProfile.configure(GrpcOpenTelemetry.newBuilder())
         .sdk(openTelemetrySdk)
         .build();
     // Registers gRPC OpenTelemetry globally.
@@ -146,6 +181,18 @@ public class OpenTelemetryClient {
     OpenTelemetryClient client = new OpenTelemetryClient(channel);
 
     try {
+      if (concurrency > 0) {
+        LoadGenerator load = new LoadGenerator(channel,
+            openTelemetrySdk.getMeter(LoadGenerator.METER_NAME), concurrency, qps, payloadBytes,
+            timeoutMillis, TimeUnit.MILLISECONDS);
+        load.start();
+        while (sendRpcs.get()) {
+          Thread.sleep(100);
+        }
+        load.stop();
+        // Use stderr here since the logger may have been reset by its JVM shutdown hook.
+        System.err.println("*** " + load);
+      }
       // Run RPCs every second.
       while (sendRpcs.get()) {
         client.greet(user);
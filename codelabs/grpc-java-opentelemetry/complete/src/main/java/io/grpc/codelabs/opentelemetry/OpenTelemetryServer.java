@@ -16,32 +16,68 @@
 
 package io.grpc.codelabs.opentelemetry;
 
-import io.grpc.Grpc;
 import io.grpc.InsecureServerCredentials;
 import io.grpc.Server;
 import io.grpc.codelabs.helloworld.GreeterGrpc;
 import io.grpc.codelabs.helloworld.HelloReply;
 import io.grpc.codelabs.helloworld.HelloRequest;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.nio.NioEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.grpc.netty.shaded.io.netty.util.concurrent.DefaultThreadFactory;
 import io.grpc.opentelemetry.GrpcOpenTelemetry;
 import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.exporter.prometheus.PrometheusHttpServer;
 import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.metrics.SdkMeterProvider;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
- * gRPC server that manages startup/shutdown of a {@code Greeter} server and generates
- * gRPC OpenTelemetry metrics data based on the configuration.
+ * gRPC server that manages startup/shutdown of a {@code Greeter} and a {@code RouteGuide} server
+ * and generates gRPC OpenTelemetry metrics data based on the configuration. The RouteGuide service
+ * adds {@link RouteGuideMetrics} about the work done by each call.
  */
 public class OpenTelemetryServer {
   private static final Logger logger = Logger.getLogger(OpenTelemetryServer.class.getName());
 
+  /** The instrumentation scope of the executor and event loop metrics. */
+  private static final String SERVER_METER_NAME = "io.grpc.codelabs.server";
+  /** How often each event loop is probed for {@link EventLoopMetrics}. */
+  private static final long EVENT_LOOP_PROBE_PERIOD_MILLIS = 100;
+
   private Server server;
-  private void start(int port) throws IOException {
-    server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+  private InstrumentedExecutor executor;
+  private EventLoopGroup eventLoopGroup;
+  private EventLoopMetrics eventLoopMetrics;
+
+  /**
+   * Starts the server on {@code port}, running callbacks on {@code executorThreads} threads and
+   * I/O on {@code eventLoopThreads} event loops; zero picks gRPC's defaults for either.
+   */
+  private void start(int port, OpenTelemetry openTelemetry, int executorThreads,
+      int eventLoopThreads) throws IOException {
+    Meter serverMeter = openTelemetry.getMeter(SERVER_METER_NAME);
+    executor = new InstrumentedExecutor("grpc-server", executorThreads, serverMeter);
+    eventLoopGroup = new NioEventLoopGroup(eventLoopThreads,
+        new DefaultThreadFactory("grpc-server-event-loop", true));
+    eventLoopMetrics =
+        new EventLoopMetrics(eventLoopGroup, serverMeter, EVENT_LOOP_PROBE_PERIOD_MILLIS);
+    Meter meter = openTelemetry.getMeter(RouteGuideMetrics.METER_NAME);
+    server = NettyServerBuilder.forPort(port, InsecureServerCredentials.create())
+        .channelType(NioServerSocketChannel.class)
+        .bossEventLoopGroup(eventLoopGroup)
+        .workerEventLoopGroup(eventLoopGroup)
+        .executor(executor)
         .addService(new GreeterImpl())
+        .addService(new RouteGuideService(
+            RouteGuideUtil.parseFeatures(RouteGuideUtil.getDefaultFeaturesFile()), meter))
         .build()
         .start();
     logger.info("Server started, listening on " + port);
@@ -51,6 +87,11 @@ public class OpenTelemetryServer {
     if (server != null) {
       server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
     }
+    if (eventLoopMetrics != null) {
+      eventLoopMetrics.close();
+      eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).await(5, TimeUnit.SECONDS);
+      executor.shutdown();
+    }
   }
 
   /**
@@ -70,19 +111,42 @@ public class OpenTelemetryServer {
     int port = 50051;
     // The port on which prometheus metrics are exposed.
     int prometheusPort = 9464;
-
-    if (args.length > 0) {
-      if ("--help".equals(args[0])) {
-        System.err.println("Usage: [port [prometheus_port]]");
+    // The gRPC metrics to record.
+    TelemetryProfile telemetryProfile = TelemetryProfile.DEFAULT;
+    // Threads running application callbacks and event loops doing I/O; 0 for gRPC's defaults.
+    int executorThreads = 0;
+    int eventLoopThreads = 0;
+
+    List<String> positional = new ArrayList<>();
+    for (String arg : args) {
+      if ("--help".equals(arg)) {
+        System.err.println("Usage: [--option=value ...] [port [prometheus_port]]");
         System.err.println("");
         System.err.println("  port  The port on which server will run. Defaults to " + port);
         System.err.println("  prometheusPort  The port to expose prometheus metrics. Defaults to " + prometheusPort);
+        System.err.println("  --telemetry_profile  default, all or low_overhead. Defaults to "
+            + telemetryProfile.flag());
+        System.err.println("  --executor_threads    Threads running application callbacks; 0 grows");
+        System.err.println("                        the pool as needed. Defaults to "
+            + executorThreads);
+        System.err.println("  --event_loop_threads  Netty event loops; 0 for two per CPU.");
+        System.err.println("                        Defaults to " + eventLoopThreads);
         System.exit(1);
+      } else if (arg.startsWith("--telemetry_profile=")) {
+        telemetryProfile = TelemetryProfile.fromFlag(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--executor_threads=")) {
+        executorThreads = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--event_loop_threads=")) {
+        eventLoopThreads = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+      } else {
+        positional.add(arg);
       }
-      port = Integer.parseInt(args[0]);
     }
-    if (args.length > 1) {
-      prometheusPort = Integer.parseInt(args[1]);
+    if (positional.size() > 0) {
+      port = Integer.parseInt(positional.get(0));
+    }
+    if (positional.size() > 1) {
+      prometheusPort = Integer.parseInt(positional.get(1));
     }
 
     ///////////////////////////////////////////////////////////////////////////
@@ -95,7 +159,7 @@ public class OpenTelemetryServer {
         .setPort(prometheusPort)
         .build();
 
-    SdkMeterProvider sdkMeterProvider = SdkMeterProvider.builder()
+    SdkMeterProvider sdkMeterProvider = telemetryProfile.configure(SdkMeterProvider.builder())
         .registerMetricReader(prometheusExporter)
         .build();
 
@@ -109,14 +173,19 @@ public class OpenTelemetryServer {
     //     2. grpc.server.call.sent_total_compressed_message_size
     //     3. grpc.server.call.rcvd_total_compressed_message_size
     //     4. grpc.server.call.duration
-    GrpcOpenTelemetry grpcOpenTelmetry = GrpcOpenTelemetry.newBuilder()
+    // --telemetry_profile=low_overhead only keeps the duration.
+    GrpcOpenTelemetry grpcOpenTelmetry = telemetryProfile.configure(GrpcOpenTelemetry.newBuilder())
         .sdk(openTelemetrySdk)
         .build();
     // Registers gRPC OpenTelemetry globally.
     grpcOpenTelmetry.registerGlobal();
 
+    // Adds GC pauses, heap usage, allocated bytes and other JVM metrics, to tell a slow server
+    // short of memory from one short of threads.
+    final List<AutoCloseable> jvmObservers = JvmMetrics.register(openTelemetrySdk);
+
     final OpenTelemetryServer server = new OpenTelemetryServer();
-    server.start(port);
+    server.start(port, openTelemetrySdk, executorThreads, eventLoopThreads);
 
     Runtime.getRuntime().addShutdownHook(new Thread() {
       @Override
@@ -130,6 +199,13 @@ public class OpenTelemetryServer {
         ///////////////////////////////////////////////////////////////////////////
         // CODELAB SOLUTION : Shutdown OpenTelemetry SDK.
         ///////////////////////////////////////////////////////////////////////////
+        for (AutoCloseable observer : jvmObservers) {
+          try {
+            observer.close();
+          } catch (Exception e) {
+            e.printStackTrace(System.err);
+          }
+        }
         openTelemetrySdk.close();
 
         System.err.println("*** server shut down");
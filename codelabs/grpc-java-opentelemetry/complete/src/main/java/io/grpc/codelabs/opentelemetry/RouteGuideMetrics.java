@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The domain metrics of {@link RouteGuideService}, next to the call metrics that
+ * {@code GrpcOpenTelemetry} records for every RPC.
+ *
+ * <p>They show how much work each call makes the server do: a ListFeatures call that scans far
+ * more features than it returns, or a location collecting ever more RouteChat notes, stands out
+ * even though the call itself looks normal. All attributes have a handful of values, so each
+ * instrument exports only a few series.
+ */
+final class RouteGuideMetrics {
+  /** The instrumentation scope of the metrics. */
+  static final String METER_NAME = "io.grpc.codelabs.routeguide";
+
+  private static final AttributeKey<String> METHOD = AttributeKey.stringKey("grpc.method");
+  private static final AttributeKey<Boolean> FOUND = AttributeKey.booleanKey("routeguide.found");
+  private static final Attributes GET_FEATURE_HIT = Attributes.of(
+      METHOD, "routeguide.RouteGuide/GetFeature", FOUND, true);
+  private static final Attributes GET_FEATURE_MISS = Attributes.of(
+      METHOD, "routeguide.RouteGuide/GetFeature", FOUND, false);
+  private static final Attributes RECORD_ROUTE_HIT = Attributes.of(
+      METHOD, "routeguide.RouteGuide/RecordRoute", FOUND, true);
+  private static final Attributes RECORD_ROUTE_MISS = Attributes.of(
+      METHOD, "routeguide.RouteGuide/RecordRoute", FOUND, false);
+
+  /** Bucket boundaries for counts of features, points and notes. */
+  private static final List<Long> COUNT_BUCKETS =
+      Arrays.asList(0L, 1L, 2L, 5L, 10L, 20L, 50L, 100L, 200L, 500L, 1000L, 2000L, 5000L, 10000L);
+
+  private final LongHistogram featuresScanned;
+  private final LongHistogram featuresReturned;
+  private final LongCounter lookups;
+  private final LongHistogram routePoints;
+  private final LongHistogram notesPerLocation;
+
+  /**
+   * Creates the instruments on {@code meter}. {@code locations} reports the number of locations
+   * that hold RouteChat notes whenever the metrics are collected.
+   */
+  RouteGuideMetrics(Meter meter, final LongSupplier locations) {
+    featuresScanned = meter.histogramBuilder("routeguide.list_features.scanned")
+        .setDescription("Features a ListFeatures call checked against its rectangle")
+        .setUnit("{feature}")
+        .ofLongs()
+        .setExplicitBucketBoundariesAdvice(COUNT_BUCKETS)
+        .build();
+    featuresReturned = meter.histogramBuilder("routeguide.list_features.returned")
+        .setDescription("Features a ListFeatures call returned")
+        .setUnit("{feature}")
+        .ofLongs()
+        .setExplicitBucketBoundariesAdvice(COUNT_BUCKETS)
+        .build();
+    lookups = meter.counterBuilder("routeguide.feature_lookups")
+        .setDescription("Lookups of the feature at a point, by whether one was found")
+        .setUnit("{lookup}")
+        .build();
+    routePoints = meter.histogramBuilder("routeguide.record_route.points")
+        .setDescription("Points a RecordRoute call received")
+        .setUnit("{point}")
+        .ofLongs()
+        .setExplicitBucketBoundariesAdvice(COUNT_BUCKETS)
+        .build();
+    notesPerLocation = meter.histogramBuilder("routeguide.route_chat.notes_per_location")
+        .setDescription("Notes already at the location of each received RouteChat note")
+        .setUnit("{note}")
+        .ofLongs()
+        .setExplicitBucketBoundariesAdvice(COUNT_BUCKETS)
+        .build();
+    meter.gaugeBuilder("routeguide.route_chat.locations")
+        .setDescription("Locations that hold RouteChat notes")
+        .setUnit("{location}")
+        .ofLongs()
+        .buildWithCallback(new Consumer<ObservableLongMeasurement>() {
+          @Override
+          public void accept(ObservableLongMeasurement measurement) {
+            measurement.record(locations.getAsLong());
+          }
+        });
+  }
+
+  /** Records a finished ListFeatures scan. */
+  void listFeatures(long scanned, long returned) {
+    featuresScanned.record(scanned);
+    featuresReturned.record(returned);
+  }
+
+  /** Records a GetFeature lookup. */
+  void getFeatureLookup(boolean found) {
+    lookups.add(1, found ? GET_FEATURE_HIT : GET_FEATURE_MISS);
+  }
+
+  /** Records the lookup of a RecordRoute point. */
+  void recordRouteLookup(boolean found) {
+    lookups.add(1, found ? RECORD_ROUTE_HIT : RECORD_ROUTE_MISS);
+  }
+
+  /** Records a completed RecordRoute call. */
+  void recordRoute(long points) {
+    routePoints.record(points);
+  }
+
+  /** Records a RouteChat note arriving at a location that already holds {@code notes}. */
+  void routeNote(long notes) {
+    notesPerLocation.record(notes);
+  }
+}
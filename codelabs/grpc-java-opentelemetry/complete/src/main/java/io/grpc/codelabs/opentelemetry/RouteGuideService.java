@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import io.grpc.codelabs.routeguide.Feature;
+import io.grpc.codelabs.routeguide.Point;
+import io.grpc.codelabs.routeguide.Rectangle;
+import io.grpc.codelabs.routeguide.RouteGuideGrpc;
+import io.grpc.codelabs.routeguide.RouteNote;
+import io.grpc.codelabs.routeguide.RouteSummary;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The RouteGuide service of the streaming codelab, recording {@link RouteGuideMetrics} as it
+ * handles calls.
+ *
+ * <p>See route_guide.proto for details of the methods.
+ */
+final class RouteGuideService extends RouteGuideGrpc.RouteGuideImplBase {
+  private static final Logger logger = Logger.getLogger(RouteGuideService.class.getName());
+
+  private final Collection<Feature> features;
+  private final ConcurrentMap<Point, List<RouteNote>> routeNotes =
+      new ConcurrentHashMap<Point, List<RouteNote>>();
+  private final RouteGuideMetrics metrics;
+
+  /** Creates a service for {@code features}, recording its metrics on {@code meter}. */
+  RouteGuideService(Collection<Feature> features, Meter meter) {
+    this.features = features;
+    this.metrics = new RouteGuideMetrics(meter, new LongSupplier() {
+      @Override
+      public long getAsLong() {
+        return routeNotes.size();
+      }
+    });
+  }
+
+  /**
+   * Gets the {@link Feature} at the requested {@link Point}. If no feature at that location
+   * exists, an unnamed feature is returned at the provided location.
+   *
+   * @param request the requested location for the feature.
+   * @param responseObserver the observer that will receive the feature at the requested point.
+   */
+  @Override
+  public void getFeature(Point request, StreamObserver<Feature> responseObserver) {
+    Feature feature = checkFeature(request);
+    metrics.getFeatureLookup(RouteGuideUtil.exists(feature));
+    responseObserver.onNext(feature);
+    responseObserver.onCompleted();
+  }
+
+  /**
+   * Gets all features contained within the given bounding {@link Rectangle}.
+   *
+   * @param request the bounding rectangle for the requested features.
+   * @param responseObserver the observer that will receive the features.
+   */
+  @Override
+  public void listFeatures(Rectangle request, StreamObserver<Feature> responseObserver) {
+    int left = min(request.getLo().getLongitude(), request.getHi().getLongitude());
+    int right = max(request.getLo().getLongitude(), request.getHi().getLongitude());
+    int top = max(request.getLo().getLatitude(), request.getHi().getLatitude());
+    int bottom = min(request.getLo().getLatitude(), request.getHi().getLatitude());
+
+    int scanned = 0;
+    int returned = 0;
+    for (Feature feature : features) {
+      scanned++;
+      if (!RouteGuideUtil.exists(feature)) {
+        continue;
+      }
+
+      int lat = feature.getLocation().getLatitude();
+      int lon = feature.getLocation().getLongitude();
+      if (lon >= left && lon <= right && lat >= bottom && lat <= top) {
+        responseObserver.onNext(feature);
+        returned++;
+      }
+    }
+    metrics.listFeatures(scanned, returned);
+    responseObserver.onCompleted();
+  }
+
+  /**
+   * Gets a stream of points, and responds with statistics about the "trip": number of points,
+   * number of known features visited, total distance traveled, and total time spent.
+   *
+   * @param responseObserver an observer to receive the response summary.
+   * @return an observer to receive the requested route points.
+   */
+  @Override
+  public StreamObserver<Point> recordRoute(final StreamObserver<RouteSummary> responseObserver) {
+    return new StreamObserver<Point>() {
+      int pointCount;
+      int featureCount;
+      int distance;
+      Point previous;
+      final long startTime = System.nanoTime();
+
+      @Override
+      public void onNext(Point point) {
+        pointCount++;
+        boolean found = RouteGuideUtil.exists(checkFeature(point));
+        metrics.recordRouteLookup(found);
+        if (found) {
+          featureCount++;
+        }
+        // For each point after the first, add the incremental distance from the previous point to
+        // the total distance value.
+        if (previous != null) {
+          distance += calcDistance(previous, point);
+        }
+        previous = point;
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        logger.log(Level.WARNING, "recordRoute cancelled");
+      }
+
+      @Override
+      public void onCompleted() {
+        metrics.recordRoute(pointCount);
+        long seconds = NANOSECONDS.toSeconds(System.nanoTime() - startTime);
+        responseObserver.onNext(RouteSummary.newBuilder().setPointCount(pointCount)
+            .setFeatureCount(featureCount).setDistance(distance)
+            .setElapsedTime((int) seconds).build());
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  /**
+   * Receives a stream of message/location pairs, and responds with a stream of all previous
+   * messages at each of those locations.
+   *
+   * @param responseObserver an observer to receive the stream of previous messages.
+   * @return an observer to handle requested message/location pairs.
+   */
+  @Override
+  public StreamObserver<RouteNote> routeChat(final StreamObserver<RouteNote> responseObserver) {
+    return new StreamObserver<RouteNote>() {
+      @Override
+      public void onNext(RouteNote note) {
+        List<RouteNote> notes = getOrCreateNotes(note.getLocation());
+
+        // Respond with all previous notes at this location.
+        RouteNote[] previousNotes = notes.toArray(new RouteNote[0]);
+        metrics.routeNote(previousNotes.length);
+        for (RouteNote prevNote : previousNotes) {
+          responseObserver.onNext(prevNote);
+        }
+
+        // Now add the new note to the list
+        notes.add(note);
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        logger.log(Level.WARNING, "routeChat cancelled");
+      }
+
+      @Override
+      public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
+
+  /**
+   * Get the notes list for the given location. If missing, create it.
+   */
+  private List<RouteNote> getOrCreateNotes(Point location) {
+    List<RouteNote> notes = Collections.synchronizedList(new ArrayList<RouteNote>());
+    List<RouteNote> prevNotes = routeNotes.putIfAbsent(location, notes);
+    return prevNotes != null ? prevNotes : notes;
+  }
+
+  /**
+   * Gets the feature at the given point.
+   *
+   * @param location the location to check.
+   * @return The feature object at the point. Note that an empty name indicates no feature.
+   */
+  private Feature checkFeature(Point location) {
+    for (Feature feature : features) {
+      if (feature.getLocation().getLatitude() == location.getLatitude()
+          && feature.getLocation().getLongitude() == location.getLongitude()) {
+        return feature;
+      }
+    }
+
+    // No feature was found, return an unnamed feature.
+    return Feature.newBuilder().setName("").setLocation(location).build();
+  }
+
+  /**
+   * Calculate the distance between two points using the "haversine" formula.
+   * The formula is based on http://mathforum.org/library/drmath/view/51879.html.
+   *
+   * @param start The starting point
+   * @param end The end point
+   * @return The distance between the points in meters
+   */
+  private static int calcDistance(Point start, Point end) {
+    int r = 6371000; // earth radius in meters
+    double lat1 = toRadians(RouteGuideUtil.getLatitude(start));
+    double lat2 = toRadians(RouteGuideUtil.getLatitude(end));
+    double lon1 = toRadians(RouteGuideUtil.getLongitude(start));
+    double lon2 = toRadians(RouteGuideUtil.getLongitude(end));
+    double deltaLat = lat2 - lat1;
+    double deltaLon = lon2 - lon1;
+
+    double a = sin(deltaLat / 2) * sin(deltaLat / 2)
+        + cos(lat1) * cos(lat2) * sin(deltaLon / 2) * sin(deltaLon / 2);
+    double c = 2 * atan2(sqrt(a), sqrt(1 - a));
+
+    return (int) (r * c);
+  }
+}
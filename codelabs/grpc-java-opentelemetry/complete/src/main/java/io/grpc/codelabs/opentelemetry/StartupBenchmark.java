@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.codelabs.helloworld.GreeterGrpc;
+import io.grpc.codelabs.helloworld.HelloRequest;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the installed {@code opentelemetry-server} takes from process start to
+ * answering its first RPC, with and without its AppCDS archive.
+ *
+ * <p>Run with {@code ./gradlew cdsArchive startupBenchmark}. Each run starts a fresh server
+ * process, waits until its port accepts connections, and then times a SayHello call on a new
+ * channel, so the client's own startup and reconnect backoff are not part of the result.
+ */
+public final class StartupBenchmark {
+  private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+  private final String serverScript;
+  private final int port;
+  private final File serverLog;
+
+  private StartupBenchmark(String serverScript, int port, File serverLog) {
+    this.serverScript = serverScript;
+    this.port = port;
+    this.serverLog = serverLog;
+  }
+
+  /**
+   * Usage: {@code SERVER_SCRIPT PORT RUNS SERVER_LOG}. Runs alternate between the two modes so
+   * that drifting machine load affects both alike.
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 4) {
+      System.err.println("Usage: SERVER_SCRIPT PORT RUNS SERVER_LOG");
+      System.exit(1);
+    }
+    StartupBenchmark benchmark =
+        new StartupBenchmark(args[0], Integer.parseInt(args[1]), new File(args[3]));
+    int runs = Integer.parseInt(args[2]);
+    List<Long> withoutArchive = new ArrayList<>();
+    List<Long> withArchive = new ArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      withoutArchive.add(benchmark.timeToFirstRpc(false));
+      withArchive.add(benchmark.timeToFirstRpc(true));
+    }
+    report("without AppCDS", withoutArchive);
+    report("with AppCDS", withArchive);
+  }
+
+  /** Starts the server and returns the milliseconds until it answered a SayHello call. */
+  private long timeToFirstRpc(boolean useArchive) throws IOException, InterruptedException {
+    ProcessBuilder builder = new ProcessBuilder(serverScript, String.valueOf(port))
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.appendTo(serverLog));
+    if (!useArchive) {
+      builder.environment().put("DISABLE_APPCDS", "1");
+    }
+    long start = System.nanoTime();
+    Process server = builder.start();
+    try {
+      awaitPort(server, start);
+      ManagedChannel channel = Grpc.newChannelBuilder(
+          "localhost:" + port, InsecureChannelCredentials.create()).build();
+      try {
+        GreeterGrpc.newBlockingStub(channel)
+            .withDeadlineAfter(TIMEOUT_NANOS - (System.nanoTime() - start), TimeUnit.NANOSECONDS)
+            .sayHello(HelloRequest.newBuilder().setName("startup").build());
+      } finally {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+      }
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    } finally {
+      server.destroy();
+      server.waitFor();
+    }
+  }
+
+  private void awaitPort(Process server, long start) throws IOException, InterruptedException {
+    while (true) {
+      try (Socket socket = new Socket()) {
+        socket.connect(new InetSocketAddress("localhost", port), 100);
+        return;
+      } catch (IOException e) {
+        if (!server.isAlive() || System.nanoTime() - start > TIMEOUT_NANOS) {
+          throw new IOException("Server did not start; see " + serverLog, e);
+        }
+        Thread.sleep(2);
+      }
+    }
+  }
+
+  private static void report(String mode, List<Long> millis) {
+    List<Long> sorted = new ArrayList<>(millis);
+    Collections.sort(sorted);
+    long total = 0;
+    for (long value : sorted) {
+      total += value;
+    }
+    System.out.printf("%-15s runs=%d min=%dms median=%dms mean=%dms max=%dms %s%n", mode,
+        sorted.size(), sorted.get(0), sorted.get(sorted.size() / 2), total / sorted.size(),
+        sorted.get(sorted.size() - 1), millis);
+  }
+}
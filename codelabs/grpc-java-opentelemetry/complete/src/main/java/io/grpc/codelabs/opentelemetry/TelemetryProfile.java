@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.codelabs.opentelemetry;
+
+import io.grpc.opentelemetry.GrpcOpenTelemetry;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentSelector;
+import io.opentelemetry.sdk.metrics.SdkMeterProviderBuilder;
+import io.opentelemetry.sdk.metrics.View;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * How much gRPC telemetry {@link OpenTelemetryServer} and {@link OpenTelemetryClient} record,
+ * selected with {@code --telemetry_profile}.
+ */
+enum TelemetryProfile {
+  /** The metrics {@link GrpcOpenTelemetry} enables by default. */
+  DEFAULT,
+
+  /**
+   * Every gRPC metric, including those of the weighted round robin and RLS load balancers, and
+   * the optional locality label. Channels using neither balancer record the same per-call
+   * metrics as {@link #DEFAULT}.
+   */
+  ALL,
+
+  /**
+   * Only the client and server call durations, in {@link #LOW_OVERHEAD_BUCKETS}. The call rates
+   * remain available as the histogram counts; the attempt metrics, message sizes and started-call
+   * counters are not recorded.
+   *
+   * <p>This profile makes collection and export cheaper, not calls: GrpcOpenTelemetry's per-call
+   * tracers cost about the same as in {@link #DEFAULT}, see {@code GrpcOpenTelemetryBenchmark}.
+   * What it saves is the number of series and buckets each collection walks and each export
+   * sends.
+   *
+   * <p>It deliberately keeps every attribute, including the client's {@code grpc.target}.
+   * GrpcOpenTelemetry has no option to leave that attribute out, and dropping it with a view's
+   * attribute filter runs the filter on every measurement, which cost more per call than it
+   * saved. A client talks to few targets, so the attribute adds few series.
+   */
+  LOW_OVERHEAD;
+
+  private static final List<String> CALL_DURATIONS =
+      Arrays.asList("grpc.client.call.duration", "grpc.server.call.duration");
+
+  private static final List<String> ALL_METRICS = Arrays.asList(
+      "grpc.client.attempt.started",
+      "grpc.client.attempt.duration",
+      "grpc.client.attempt.sent_total_compressed_message_size",
+      "grpc.client.attempt.rcvd_total_compressed_message_size",
+      "grpc.client.call.duration",
+      "grpc.server.call.started",
+      "grpc.server.call.duration",
+      "grpc.server.call.sent_total_compressed_message_size",
+      "grpc.server.call.rcvd_total_compressed_message_size",
+      "grpc.lb.wrr.rr_fallback",
+      "grpc.lb.wrr.endpoint_weight_not_yet_usable",
+      "grpc.lb.wrr.endpoint_weight_stale",
+      "grpc.lb.wrr.endpoint_weights",
+      "grpc.lb.rls.cache_entries",
+      "grpc.lb.rls.cache_size",
+      "grpc.lb.rls.default_target_picks",
+      "grpc.lb.rls.target_picks",
+      "grpc.lb.rls.failed_picks");
+
+  /**
+   * Call duration buckets in seconds: 14 instead of gRPC's default 41, still enough to tell
+   * percentiles apart on dashboards.
+   */
+  private static final List<Double> LOW_OVERHEAD_BUCKETS = Arrays.asList(
+      0.0001, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0);
+
+  /** Parses a {@code --telemetry_profile} value, e.g. {@code low_overhead}. */
+  static TelemetryProfile fromFlag(String value) {
+    return valueOf(value.toUpperCase(Locale.ROOT));
+  }
+
+  /** Returns the name of the profile as given to {@code --telemetry_profile}. */
+  String flag() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /** Adds the views of the profile, if any, to {@code meterProvider}. */
+  SdkMeterProviderBuilder configure(SdkMeterProviderBuilder meterProvider) {
+    if (this == LOW_OVERHEAD) {
+      meterProvider.registerView(
+          InstrumentSelector.builder().setName("grpc.client.call.duration").build(),
+          View.builder()
+              .setAggregation(Aggregation.explicitBucketHistogram(LOW_OVERHEAD_BUCKETS))
+              .build());
+      meterProvider.registerView(
+          InstrumentSelector.builder().setName("grpc.server.call.duration").build(),
+          View.builder()
+              .setAggregation(Aggregation.explicitBucketHistogram(LOW_OVERHEAD_BUCKETS))
+              .build());
+    }
+    return meterProvider;
+  }
+
+  /** Selects the metrics of the profile on {@code grpcOpenTelemetry}. */
+  GrpcOpenTelemetry.Builder configure(GrpcOpenTelemetry.Builder grpcOpenTelemetry) {
+    switch (this) {
+      case ALL:
+        return grpcOpenTelemetry.enableMetrics(ALL_METRICS).addOptionalLabel("grpc.lb.locality");
+      case LOW_OVERHEAD:
+        return grpcOpenTelemetry.disableAllMetrics().enableMetrics(CALL_DURATIONS);
+      default:
+        return grpcOpenTelemetry;
+    }
+  }
+}
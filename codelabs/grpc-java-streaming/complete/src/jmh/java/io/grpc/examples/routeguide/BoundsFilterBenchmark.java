@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link ScalarBoundsFilter} with {@link VectorBoundsFilter} on one
+ * {@link FeatureScanner#CHECK_INTERVAL} block of random coordinates.
+ *
+ * <p>Run with {@code ./gradlew jmh}, which adds the {@code jdk.incubator.vector} module to the
+ * benchmark JVM. {@code selectivity} is the fraction of each axis the rectangle covers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoundsFilterBenchmark {
+  @Param({"0.01", "0.5"})
+  public double selectivity;
+
+  private final int[] latitudes = new int[FeatureScanner.CHECK_INTERVAL];
+  private final int[] longitudes = new int[FeatureScanner.CHECK_INTERVAL];
+  private final long[] matches = new long[FeatureScanner.CHECK_INTERVAL / 64];
+  private int left;
+  private int right;
+  private int bottom;
+  private int top;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(1);
+    for (int i = 0; i < latitudes.length; i++) {
+      latitudes[i] = random.nextInt(1_800_000_000) - 900_000_000;
+      longitudes[i] = random.nextInt(2_000_000_000) - 1_000_000_000;
+    }
+    left = -1_000_000_000;
+    right = left + (int) (2_000_000_000 * selectivity);
+    bottom = -900_000_000;
+    top = bottom + (int) (1_800_000_000 * selectivity);
+  }
+
+  @Benchmark
+  public int scalar() {
+    return ScalarBoundsFilter.filter(
+        latitudes, longitudes, 0, latitudes.length, left, right, bottom, top, matches);
+  }
+
+  @Benchmark
+  public int vector() {
+    return VectorBoundsFilter.filter(
+        latitudes, longitudes, 0, latitudes.length, left, right, bottom, top, matches);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import java.net.ServerSocket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures how long a burst of concurrent RecordRoute streams takes over a single channel and
+ * over a {@link ChannelPool}, against a server that allows {@value #MAX_STREAMS_PER_CONNECTION}
+ * concurrent streams per connection.
+ *
+ * <p>Each operation starts {@code streams} streams at once, sends one point on each and waits for
+ * all summaries, so the time per operation covers stream setup as well as throughput; divide
+ * {@code streams} by it for streams per second. The server keeps each stream open for
+ * {@code holdMillis} before answering, like a client that is still recording its route. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=ChannelPoolBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChannelPoolBenchmark {
+  static final int MAX_STREAMS_PER_CONNECTION = 100;
+
+  @Param({"1", "4"})
+  public int channels;
+
+  @Param({"2000"})
+  public int streams;
+
+  @Param({"0", "10"})
+  public int holdMillis;
+
+  private Server server;
+  private ScheduledExecutorService timer;
+  private ManagedChannel channel;
+  private RouteGuideGrpc.RouteGuideStub stub;
+  private final Point point = Point.newBuilder()
+      .setLatitude(409146138).setLongitude(-746188906).build();
+
+  @Setup
+  public void setUp() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    timer = Executors.newSingleThreadScheduledExecutor();
+    server = NettyServerBuilder.forPort(port)
+        .maxConcurrentCallsPerConnection(MAX_STREAMS_PER_CONNECTION)
+        .addService(RouteGuideGrpc.bindService(new RouteGuideGrpc.AsyncService() {
+          @Override
+          public StreamObserver<Point> recordRoute(StreamObserver<RouteSummary> responses) {
+            return new RecordOne(responses, timer, holdMillis);
+          }
+        }))
+        .build()
+        .start();
+    String target = "localhost:" + port;
+    channel = channels == 1
+        ? Grpc.newChannelBuilder(target, InsecureChannelCredentials.create()).build()
+        : ChannelPool.create(target, InsecureChannelCredentials.create(), channels);
+    stub = RouteGuideGrpc.newStub(channel);
+    // Connect every channel of the pool before measuring.
+    for (int i = 0; i < channels; i++) {
+      burst();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    timer.shutdownNow();
+  }
+
+  @Benchmark
+  public void burst() throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(streams);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    StreamObserver<RouteSummary> responses = new StreamObserver<RouteSummary>() {
+      @Override
+      public void onNext(RouteSummary summary) {}
+
+      @Override
+      public void onError(Throwable t) {
+        failure.compareAndSet(null, t);
+        done.countDown();
+      }
+
+      @Override
+      public void onCompleted() {
+        done.countDown();
+      }
+    };
+    for (int i = 0; i < streams; i++) {
+      StreamObserver<Point> requests = stub.recordRoute(responses);
+      requests.onNext(point);
+      requests.onCompleted();
+    }
+    if (!done.await(1, TimeUnit.MINUTES) || failure.get() != null) {
+      throw new IllegalStateException("Burst failed", failure.get());
+    }
+  }
+
+  /** A RecordRoute handler that answers {@code holdMillis} after the client is done. */
+  private static final class RecordOne implements StreamObserver<Point>, Runnable {
+    private final StreamObserver<RouteSummary> responses;
+    private final ScheduledExecutorService timer;
+    private final int holdMillis;
+    private int points;
+
+    RecordOne(StreamObserver<RouteSummary> responses, ScheduledExecutorService timer,
+        int holdMillis) {
+      this.responses = responses;
+      this.timer = timer;
+      this.holdMillis = holdMillis;
+    }
+
+    @Override
+    public void onNext(Point point) {
+      points++;
+    }
+
+    @Override
+    public void onError(Throwable t) {}
+
+    @Override
+    public void onCompleted() {
+      if (holdMillis > 0) {
+        timer.schedule(this, holdMillis, TimeUnit.MILLISECONDS);
+      } else {
+        run();
+      }
+    }
+
+    @Override
+    public void run() {
+      responses.onNext(RouteSummary.newBuilder().setPointCount(points).build());
+      responses.onCompleted();
+    }
+  }
+}
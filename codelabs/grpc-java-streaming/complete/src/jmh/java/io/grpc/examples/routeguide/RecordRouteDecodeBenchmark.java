@@ -0,0 +1,90 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the cost of handling one RecordRoute point when it is parsed into a {@link Point}
+ * message against decoding it in place with {@link PointDecoder}.
+ *
+ * <p>Run with {@code ./gradlew jmh}; the GC profiler reports {@code gc.alloc.rate.norm}, the
+ * bytes allocated per point.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RecordRouteDecodeBenchmark {
+  private static final int POINTS = 1024;
+
+  private ByteArrayInputStream[] messages;
+  private RouteAccumulator route;
+  private final PointDecoder decoder = new PointDecoder();
+  private int next;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<Feature> features =
+        RouteGuideUtil.parseFeatures(RouteGuideUtil.getDefaultFeaturesFile());
+    Random random = new Random(1);
+    messages = new ByteArrayInputStream[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      // Mix points on known features with arbitrary ones.
+      Point point = random.nextBoolean()
+          ? features.get(random.nextInt(features.size())).getLocation()
+          : Point.newBuilder().setLatitude(random.nextInt(1_800_000_000) - 900_000_000)
+              .setLongitude(random.nextInt(2_000_000_000) - 1_000_000_000).build();
+      messages[i] = new ByteArrayInputStream(point.toByteArray());
+    }
+    route = new RouteAccumulator(new FeatureStore(features));
+  }
+
+  private InputStream nextMessage() {
+    ByteArrayInputStream message = messages[next];
+    next = (next + 1) & (POINTS - 1);
+    message.reset();
+    return message;
+  }
+
+  /** The default path: the marshaller parses a {@link Point} for every message. */
+  @Benchmark
+  public RouteAccumulator parsePoint() throws IOException {
+    Point point = Point.parseFrom(nextMessage());
+    route.add(point.getLatitude(), point.getLongitude());
+    return route;
+  }
+
+  /** The {@code --raw_record_route} path. */
+  @Benchmark
+  public RouteAccumulator decodeInPlace() {
+    decoder.decode(nextMessage());
+    route.add(decoder.latitude(), decoder.longitude());
+    return route;
+  }
+}
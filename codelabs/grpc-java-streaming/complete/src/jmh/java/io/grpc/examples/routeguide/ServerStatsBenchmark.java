@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Metadata;
+import io.grpc.ServerStreamTracer;
+import io.grpc.Status;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what {@link ServerStats} adds to each call: the tracer callbacks of a unary call, and
+ * of a stream of {@value #MESSAGES} messages each way. The allocation rate reported next to the
+ * timings should only be the tracer itself. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=ServerStatsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(time = 1)
+@Measurement(time = 1)
+public class ServerStatsBenchmark {
+  static final int MESSAGES = 64;
+
+  private final ServerStats stats = new ServerStats(RouteGuideGrpc.getServiceDescriptor());
+  private final Metadata headers = new Metadata();
+
+  @Benchmark
+  public ServerStreamTracer unaryCall() {
+    return call(RouteGuideGrpc.getGetFeatureMethod().getFullMethodName(), 1);
+  }
+
+  @Benchmark
+  public ServerStreamTracer streamingCall() {
+    return call(RouteGuideGrpc.getRouteChatMethod().getFullMethodName(), MESSAGES);
+  }
+
+  private ServerStreamTracer call(String method, int messages) {
+    ServerStreamTracer tracer = stats.newServerStreamTracer(method, headers);
+    for (int i = 0; i < messages; i++) {
+      tracer.inboundMessage(i);
+      tracer.inboundWireSize(32);
+      tracer.outboundMessage(i);
+      tracer.outboundWireSize(48);
+    }
+    tracer.streamClosed(Status.OK);
+    return tracer;
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what {@link SlowCallRecorder} adds to a unary call that is neither slow nor failed,
+ * by driving the callbacks of a call through the recorder and, for comparison, straight to the
+ * handler. Run with {@code ./gradlew jmh -PjmhIncludes=SlowCallRecorderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(time = 1)
+@Measurement(time = 1)
+public class SlowCallRecorderBenchmark {
+  private final SlowCallRecorder recorder =
+      new SlowCallRecorder(100, TimeUnit.MILLISECONDS, 256);
+  private final Metadata headers = new Metadata();
+  private final Point request = Point.newBuilder().setLatitude(1).setLongitude(2).build();
+  private final Feature response = Feature.getDefaultInstance();
+  private final ServerCall<Point, Feature> call = new NoopCall();
+  private final ServerCallHandler<Point, Feature> handler =
+      new ServerCallHandler<Point, Feature>() {
+        @Override
+        public ServerCall.Listener<Point> startCall(ServerCall<Point, Feature> call,
+            Metadata headers) {
+          return new Handler(call);
+        }
+      };
+
+  @TearDown
+  public void tearDown() {
+    recorder.shutdown();
+  }
+
+  @Benchmark
+  public ServerCall.Listener<Point> unrecorded() {
+    return call(handler.startCall(call, headers));
+  }
+
+  @Benchmark
+  public ServerCall.Listener<Point> recorded() {
+    return call(recorder.interceptCall(call, headers, handler));
+  }
+
+  private ServerCall.Listener<Point> call(ServerCall.Listener<Point> listener) {
+    listener.onReady();
+    listener.onMessage(request);
+    listener.onHalfClose();
+    listener.onComplete();
+    return listener;
+  }
+
+  /** Answers each request like a unary handler. */
+  private final class Handler extends ServerCall.Listener<Point> {
+    private final ServerCall<Point, Feature> call;
+
+    Handler(ServerCall<Point, Feature> call) {
+      this.call = call;
+    }
+
+    @Override
+    public void onHalfClose() {
+      call.sendHeaders(headers);
+      call.sendMessage(response);
+      call.close(Status.OK, headers);
+    }
+  }
+
+  private static final class NoopCall extends ServerCall<Point, Feature> {
+    @Override
+    public void request(int numMessages) {}
+
+    @Override
+    public void sendHeaders(Metadata headers) {}
+
+    @Override
+    public void sendMessage(Feature message) {}
+
+    @Override
+    public void close(Status status, Metadata trailers) {}
+
+    @Override
+    public boolean isCancelled() {
+      return false;
+    }
+
+    @Override
+    public MethodDescriptor<Point, Feature> getMethodDescriptor() {
+      return RouteGuideGrpc.getGetFeatureMethod();
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.ManagedChannel;
+import io.grpc.stub.StreamObserver;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the four RouteGuide RPCs over TCP loopback, a Unix domain socket and the in-process
+ * transport, against a {@link RouteGuideServer} with the bundled feature database.
+ *
+ * <p>GetFeature measures a unary round trip. The streaming benchmarks move {@value #MESSAGES}
+ * messages per operation (ListFeatures returns the features of the codelab's rectangle), so
+ * their time per operation also shows the message throughput of each transport. RouteChat notes
+ * go to fresh locations, so no notes are returned, but the server keeps them all. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=TransportBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(time = 1)
+@Measurement(time = 1)
+public class TransportBenchmark {
+  static final int MESSAGES = 64;
+
+  @Param({"tcp", "uds", "inprocess"})
+  public String transport;
+
+  private Path socketDirectory;
+  private RouteGuideServer server;
+  private ManagedChannel channel;
+  private RouteGuideGrpc.RouteGuideBlockingStub blockingStub;
+  private RouteGuideGrpc.RouteGuideStub asyncStub;
+  private final Point point = Point.newBuilder()
+      .setLatitude(409146138).setLongitude(-746188906).build();
+  private final Rectangle rectangle = Rectangle.newBuilder()
+      .setLo(Point.newBuilder().setLatitude(400000000).setLongitude(-750000000))
+      .setHi(Point.newBuilder().setLatitude(420000000).setLongitude(-730000000))
+      .build();
+  private int nextNoteLatitude;
+
+  @Setup
+  public void setUp() throws Exception {
+    RouteGuideOptions options = new RouteGuideOptions();
+    String target;
+    switch (transport) {
+      case "tcp":
+        try (ServerSocket socket = new ServerSocket(0)) {
+          options.port = socket.getLocalPort();
+        }
+        target = "localhost:" + options.port;
+        break;
+      case "uds":
+        // JMH's temporary directory makes too long a socket path.
+        socketDirectory = Files.createTempDirectory(Paths.get("/tmp"), "route-guide");
+        options.unixSocket = socketDirectory.resolve("server.sock").toString();
+        target = "unix://" + options.unixSocket;
+        break;
+      case "inprocess":
+        options.inProcessName = "route-guide-benchmark";
+        target = "in-process:" + options.inProcessName;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown transport " + transport);
+    }
+    server = new RouteGuideServer(options);
+    server.start();
+    channel = RouteGuideClient.channelBuilder(target).build();
+    blockingStub = RouteGuideGrpc.newBlockingStub(channel);
+    asyncStub = RouteGuideGrpc.newStub(channel);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    server.stop();
+    if (socketDirectory != null) {
+      Files.deleteIfExists(socketDirectory.resolve("server.sock"));
+      Files.delete(socketDirectory);
+    }
+  }
+
+  @Benchmark
+  public Feature getFeature() {
+    return blockingStub.getFeature(point);
+  }
+
+  @Benchmark
+  public int listFeatures() {
+    int count = 0;
+    for (Iterator<Feature> features = blockingStub.listFeatures(rectangle);
+        features.hasNext(); features.next()) {
+      count++;
+    }
+    if (count != MESSAGES) {
+      throw new IllegalStateException("Expected " + MESSAGES + " features, got " + count);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public RouteSummary recordRoute() throws InterruptedException {
+    Waiter<RouteSummary> waiter = new Waiter<>();
+    StreamObserver<Point> points = asyncStub.recordRoute(waiter);
+    for (int i = 0; i < MESSAGES; i++) {
+      points.onNext(point);
+    }
+    points.onCompleted();
+    return waiter.await();
+  }
+
+  @Benchmark
+  public RouteNote routeChat() throws InterruptedException {
+    Waiter<RouteNote> waiter = new Waiter<>();
+    StreamObserver<RouteNote> notes = asyncStub.routeChat(waiter);
+    for (int i = 0; i < MESSAGES; i++) {
+      notes.onNext(RouteNote.newBuilder().setMessage("note")
+          .setLocation(Point.newBuilder().setLatitude(nextNoteLatitude++)).build());
+    }
+    notes.onCompleted();
+    return waiter.await();
+  }
+
+  /** Waits for a call to complete, keeping its last response. */
+  private static final class Waiter<T> implements StreamObserver<T> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile T last;
+
+    @Override
+    public void onNext(T value) {
+      last = value;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      failure.set(t);
+      done.countDown();
+    }
+
+    @Override
+    public void onCompleted() {
+      done.countDown();
+    }
+
+    T await() throws InterruptedException {
+      if (!done.await(10, TimeUnit.SECONDS) || failure.get() != null) {
+        throw new IllegalStateException("Call failed", failure.get());
+      }
+      return last;
+    }
+  }
+}
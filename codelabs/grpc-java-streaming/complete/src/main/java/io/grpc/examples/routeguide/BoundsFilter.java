@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/**
+ * Filters packed coordinate columns against a rectangle, producing a bitmap of the matches.
+ *
+ * <p>This is the Java 8 version, which always uses {@link ScalarBoundsFilter}. The jar also
+ * carries a Java 17 version under {@code META-INF/versions/17} that uses the incubating Vector
+ * API when the JVM is started with {@code --add-modules jdk.incubator.vector}.
+ */
+final class BoundsFilter {
+  private BoundsFilter() {}
+
+  /**
+   * Sets bit {@code i - from} of {@code matches} for each index {@code i} in {@code [from, to)}
+   * whose coordinates lie within the given bounds (inclusive) and clears the other bits of the
+   * {@code (to - from + 63) / 64} words it writes.
+   *
+   * @return the number of matches
+   */
+  static int filter(int[] latitudes, int[] longitudes, int from, int to, int left, int right,
+      int bottom, int top, long[] matches) {
+    return ScalarBoundsFilter.filter(
+        latitudes, longitudes, from, to, left, right, bottom, top, matches);
+  }
+
+  /** Describes the implementation in use. */
+  static String implementation() {
+    return "scalar";
+  }
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Deadline;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A client interceptor that caches {@code RouteGuide/GetFeature} responses by location.
+ *
+ * <p>The cache is bounded both by the number of entries and by the serialized size of the cached
+ * features, evicts in least-recently-used order and expires entries after a fixed time to live.
+ * Concurrent misses for the same location are coalesced: only the first caller issues an RPC and
+ * every other caller receives its result. Each caller's deadline and context cancellation only
+ * detach that caller: the shared RPC runs without a deadline of its own, outside of any caller's
+ * context, and is cancelled once all of its callers have gone.
+ *
+ * <p>Callbacks of cached and shared results are never run from within the caller's own calls on
+ * the {@link ClientCall}, but on the call's executor or, for calls without one such as those of
+ * async stubs, one call at a time on the interceptor's executor.
+ *
+ * <p>Calls to any other method pass through untouched, so the interceptor can be installed on a
+ * channel shared with the rest of the service.
+ */
+public final class CachingGetFeatureInterceptor implements ClientInterceptor {
+  private static final Logger logger =
+      Logger.getLogger(CachingGetFeatureInterceptor.class.getName());
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+  public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024;
+  public static final long DEFAULT_TTL_SECONDS = 300;
+  /** Rough per-entry bookkeeping cost, added to the serialized size of each feature. */
+  private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final long ttlNanos;
+  private final ScheduledExecutorService executor;
+
+  private final Object lock = new Object();
+  // Guarded by lock. Access-ordered, so iteration starts at the least recently used entry.
+  private final LinkedHashMap<Long, CachedFeature> cache = new LinkedHashMap<>(16, 0.75f, true);
+  // Guarded by lock.
+  private final Map<Long, Flight> inFlight = new HashMap<>();
+  // Guarded by lock.
+  private long bytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong expirations = new AtomicLong();
+
+  /** Creates an interceptor with the default bounds and time to live. */
+  public CachingGetFeatureInterceptor() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES, DEFAULT_TTL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Creates an interceptor that caches at most {@code maxEntries} features using at most
+   * {@code maxBytes}, each for at most {@code ttl}. Callbacks of calls without an executor run on
+   * a daemon thread of the interceptor's own.
+   */
+  public CachingGetFeatureInterceptor(int maxEntries, long maxBytes, long ttl, TimeUnit unit) {
+    this(maxEntries, maxBytes, ttl, unit, newDefaultExecutor());
+  }
+
+  /**
+   * Creates an interceptor that caches at most {@code maxEntries} features using at most
+   * {@code maxBytes}, each for at most {@code ttl}, and runs the callbacks of calls without an
+   * executor of their own on {@code executor}.
+   */
+  public CachingGetFeatureInterceptor(int maxEntries, long maxBytes, long ttl, TimeUnit unit,
+      ScheduledExecutorService executor) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+    }
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+    }
+    if (ttl < 0) {
+      throw new IllegalArgumentException("ttl must not be negative: " + ttl);
+    }
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+    this.ttlNanos = unit.toNanos(ttl);
+    this.executor = executor;
+  }
+
+  private static ScheduledExecutorService newDefaultExecutor() {
+    return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "get-feature-cache");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+    if (!RouteGuideGrpc.getGetFeatureMethod().getFullMethodName()
+        .equals(method.getFullMethodName())) {
+      return next.newCall(method, callOptions);
+    }
+    @SuppressWarnings("unchecked")
+    ClientCall<ReqT, RespT> call = (ClientCall<ReqT, RespT>) new CachingCall(
+        (MethodDescriptor<Point, Feature>) (MethodDescriptor<?, ?>) method, callOptions, next);
+    return call;
+  }
+
+  /** Returns the number of calls answered from the cache. */
+  public long hitCount() {
+    return hits.get();
+  }
+
+  /** Returns the number of calls that resulted in an RPC. */
+  public long missCount() {
+    return misses.get();
+  }
+
+  /** Returns the number of calls that joined an RPC already in flight for the same location. */
+  public long coalescedCount() {
+    return coalesced.get();
+  }
+
+  public long evictionCount() {
+    return evictions.get();
+  }
+
+  public long expirationCount() {
+    return expirations.get();
+  }
+
+  /** Drops all cached features. RPCs already in flight are unaffected. */
+  public void invalidateAll() {
+    synchronized (lock) {
+      cache.clear();
+      bytes = 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    int size;
+    long currentBytes;
+    synchronized (lock) {
+      size = cache.size();
+      currentBytes = bytes;
+    }
+    return String.format(
+        "CachingGetFeatureInterceptor{entries=%d/%d, bytes=%d/%d, hits=%d, misses=%d, "
+            + "coalesced=%d, evictions=%d, expirations=%d}",
+        size, maxEntries, currentBytes, maxBytes, hits.get(), misses.get(), coalesced.get(),
+        evictions.get(), expirations.get());
+  }
+
+  private static long key(Point location) {
+    return ((long) location.getLatitude() << 32) | (location.getLongitude() & 0xffffffffL);
+  }
+
+  /** Starts or joins the RPC for {@code call}, unless the feature is already cached. */
+  private void resolve(CachingCall call) {
+    Long key = key(call.request);
+    Feature cached = null;
+    Flight flight = null;
+    boolean leader = false;
+    synchronized (lock) {
+      CachedFeature entry = cache.get(key);
+      if (entry != null && System.nanoTime() - entry.createdNanos > ttlNanos) {
+        removeLocked(key, entry);
+        expirations.incrementAndGet();
+        entry = null;
+      }
+      if (entry != null) {
+        cached = entry.feature;
+      } else {
+        flight = inFlight.get(key);
+        if (flight == null) {
+          flight = new Flight(key);
+          inFlight.put(key, flight);
+          leader = true;
+        }
+        flight.waiters.add(call);
+        call.flight = flight;
+      }
+    }
+    if (cached != null) {
+      hits.incrementAndGet();
+      call.deliver(Status.OK, cached);
+    } else if (leader) {
+      misses.incrementAndGet();
+      flight.start(call);
+    } else {
+      coalesced.incrementAndGet();
+    }
+  }
+
+  private void storeLocked(Long key, Feature feature) {
+    long size = feature.getSerializedSize() + ENTRY_OVERHEAD_BYTES;
+    if (size > maxBytes) {
+      return;
+    }
+    CachedFeature previous = cache.put(key, new CachedFeature(feature, size, System.nanoTime()));
+    if (previous != null) {
+      bytes -= previous.size;
+    }
+    bytes += size;
+    Iterator<CachedFeature> it = cache.values().iterator();
+    while ((bytes > maxBytes || cache.size() > maxEntries) && it.hasNext()) {
+      CachedFeature eldest = it.next();
+      it.remove();
+      bytes -= eldest.size;
+      evictions.incrementAndGet();
+    }
+  }
+
+  private void removeLocked(Long key, CachedFeature entry) {
+    cache.remove(key);
+    bytes -= entry.size;
+  }
+
+  private static final class CachedFeature {
+    final Feature feature;
+    final long size;
+    final long createdNanos;
+
+    CachedFeature(Feature feature, long size, long createdNanos) {
+      this.feature = feature;
+      this.size = size;
+      this.createdNanos = createdNanos;
+    }
+  }
+
+  /**
+   * The single RPC shared by every concurrent call for one location. It receives the response and
+   * hands it to all of its waiters.
+   */
+  private final class Flight extends ClientCall.Listener<Feature> {
+    final Long key;
+    // Guarded by lock.
+    final List<CachingCall> waiters = new ArrayList<>();
+    // Guarded by lock. Set once the call has been started.
+    ClientCall<Point, Feature> call;
+    // Only accessed from the call's callbacks.
+    Feature response;
+
+    Flight(Long key) {
+      this.key = key;
+    }
+
+    void start(CachingCall leader) {
+      // Callbacks run on the channel's executor rather than on the leader's, which may stop being
+      // drained if the leader gives up before the other waiters.
+      // Waiters that join later may want to wait longer than the leader, so the RPC itself has no
+      // deadline and does not inherit one from the leader's context.
+      ClientCall<Point, Feature> newCall = leader.next.newCall(
+          leader.method, leader.callOptions.withExecutor(null).withDeadline(null));
+      Context previous = Context.ROOT.attach();
+      try {
+        newCall.start(this, leader.headers);
+        newCall.request(1);
+        newCall.sendMessage(leader.request);
+        newCall.halfClose();
+      } catch (RuntimeException e) {
+        newCall.cancel("Failed to start GetFeature", e);
+        // Fail everybody who joined in the meantime too, so that later calls start a new RPC
+        // instead of joining this one.
+        fail(Status.fromThrowable(e));
+        return;
+      } finally {
+        Context.ROOT.detach(previous);
+      }
+      boolean abandoned;
+      synchronized (lock) {
+        call = newCall;
+        abandoned = waiters.isEmpty();
+      }
+      if (abandoned) {
+        newCall.cancel("All callers cancelled", null);
+      }
+    }
+
+    /** Completes every waiter with {@code status}, without caching anything. */
+    void fail(Status status) {
+      List<CachingCall> done;
+      synchronized (lock) {
+        inFlight.remove(key, this);
+        done = new ArrayList<>(waiters);
+        waiters.clear();
+      }
+      for (CachingCall waiter : done) {
+        waiter.deliver(status, null);
+      }
+    }
+
+    /** Removes a cancelled waiter, cancelling the RPC once nobody is interested in it. */
+    void detach(CachingCall waiter, String message, Throwable cause) {
+      ClientCall<Point, Feature> toCancel = null;
+      synchronized (lock) {
+        if (waiters.remove(waiter) && waiters.isEmpty()) {
+          inFlight.remove(key, this);
+          toCancel = call;
+        }
+      }
+      if (toCancel != null) {
+        toCancel.cancel(message, cause);
+      }
+    }
+
+    @Override
+    public void onMessage(Feature message) {
+      response = message;
+    }
+
+    @Override
+    public void onClose(Status status, Metadata trailers) {
+      if (status.isOk() && response == null) {
+        status = Status.INTERNAL.withDescription("No response received for GetFeature");
+      }
+      List<CachingCall> done;
+      synchronized (lock) {
+        inFlight.remove(key, this);
+        done = new ArrayList<>(waiters);
+        waiters.clear();
+        if (status.isOk()) {
+          storeLocked(key, response);
+        }
+      }
+      for (CachingCall waiter : done) {
+        waiter.deliver(status, response);
+      }
+    }
+  }
+
+  /** The call handed to the application. It never talks to the network directly. */
+  private final class CachingCall extends ClientCall<Point, Feature>
+      implements Context.CancellationListener {
+    final MethodDescriptor<Point, Feature> method;
+    final CallOptions callOptions;
+    final Channel next;
+    final Executor callbackExecutor;
+    final AtomicBoolean closed = new AtomicBoolean();
+    Listener<Feature> listener;
+    Metadata headers;
+    Point request;
+    volatile Flight flight;
+    // Set by start().
+    volatile Context context;
+    volatile ScheduledFuture<?> deadlineTimer;
+
+    CachingCall(MethodDescriptor<Point, Feature> method, CallOptions callOptions, Channel next) {
+      this.method = method;
+      this.callOptions = callOptions;
+      this.next = next;
+      this.callbackExecutor = new SerializingExecutor(callOptions.getExecutor() != null
+          ? callOptions.getExecutor() : CachingGetFeatureInterceptor.this.executor);
+    }
+
+    @Override
+    public void start(Listener<Feature> responseListener, Metadata headers) {
+      this.listener = responseListener;
+      this.headers = headers;
+      this.context = Context.current();
+      context.addListener(this, MoreExecutors.directExecutor());
+      Deadline deadline = callOptions.getDeadline();
+      Deadline contextDeadline = context.getDeadline();
+      if (contextDeadline != null && (deadline == null || contextDeadline.isBefore(deadline))) {
+        deadline = contextDeadline;
+      }
+      if (deadline != null) {
+        final long timeoutNanos = deadline.timeRemaining(TimeUnit.NANOSECONDS);
+        deadlineTimer = executor.schedule(new Runnable() {
+          @Override
+          public void run() {
+            abort(Status.DEADLINE_EXCEEDED.withDescription(String.format(Locale.ROOT,
+                "GetFeature deadline of %.3fs exceeded", timeoutNanos / 1e9)), null);
+          }
+        }, timeoutNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    /** Called when the caller's context is cancelled. */
+    @Override
+    public void cancelled(Context context) {
+      Status status = Contexts.statusFromCancelled(context);
+      abort(status != null ? status : Status.CANCELLED.withDescription("Context cancelled"),
+          context.cancellationCause());
+    }
+
+    @Override
+    public void request(int numMessages) {
+      // At most one message is ever delivered, so there is nothing to throttle.
+    }
+
+    @Override
+    public void sendMessage(Point message) {
+      request = message;
+    }
+
+    @Override
+    public void halfClose() {
+      if (closed.get()) {
+        // Already cancelled or past its deadline.
+        return;
+      }
+      if (request == null) {
+        deliver(Status.INTERNAL.withDescription("No request sent for GetFeature"), null);
+        return;
+      }
+      resolve(this);
+    }
+
+    @Override
+    public void cancel(String message, Throwable cause) {
+      Status status = Status.CANCELLED;
+      if (message != null) {
+        status = status.withDescription(message);
+      }
+      if (cause != null) {
+        status = status.withCause(cause);
+      }
+      abort(status, cause);
+    }
+
+    /** Closes the call with {@code status} and leaves its flight, if it is still open. */
+    void abort(Status status, Throwable cause) {
+      if (!deliver(status, null)) {
+        return;
+      }
+      Flight current = flight;
+      if (current != null) {
+        current.detach(this, status.getDescription(), cause);
+      }
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    /** Completes the call, returning whether this was the first attempt to do so. */
+    boolean deliver(final Status status, final Feature feature) {
+      if (!closed.compareAndSet(false, true)) {
+        return false;
+      }
+      ScheduledFuture<?> timer = deadlineTimer;
+      if (timer != null) {
+        timer.cancel(false);
+      }
+      if (context != null) {
+        context.removeListener(this);
+      }
+      callbackExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          if (listener == null) {
+            // Cancelled before being started.
+            return;
+          }
+          if (status.isOk()) {
+            listener.onHeaders(new Metadata());
+            listener.onMessage(feature);
+          }
+          listener.onClose(status, new Metadata());
+        }
+      });
+      return true;
+    }
+  }
+
+  /**
+   * Runs tasks one at a time, in order, on a delegate executor, so that the callbacks of one call
+   * never overlap even if the delegate has several threads.
+   */
+  private static final class SerializingExecutor implements Executor, Runnable {
+    private final Executor delegate;
+    // Guarded by this.
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    // Guarded by this. Whether a run() has been handed to the delegate and not finished yet.
+    private boolean scheduled;
+
+    SerializingExecutor(Executor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      synchronized (this) {
+        tasks.add(task);
+        if (scheduled) {
+          return;
+        }
+        scheduled = true;
+      }
+      delegate.execute(this);
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        Runnable task;
+        synchronized (this) {
+          task = tasks.poll();
+          if (task == null) {
+            scheduled = false;
+            return;
+          }
+        }
+        try {
+          task.run();
+        } catch (RuntimeException e) {
+          logger.log(Level.SEVERE, "GetFeature callback failed", e);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.CallOptions;
+import io.grpc.ChannelCredentials;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Grpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A channel that spreads calls across several independent channels to the same target.
+ *
+ * <p>Each channel has its own HTTP/2 connection, so the pool is not limited by the server's
+ * {@code MAX_CONCURRENT_STREAMS} setting for a single connection and does not funnel every stream
+ * through one connection's event loop. Each new call goes to the channel with the fewest calls
+ * that have been started but not yet closed; ties are broken round-robin, so that an idle pool
+ * still uses all of its connections.
+ */
+public final class ChannelPool extends ManagedChannel {
+  private final ManagedChannel[] channels;
+  // Calls started but not yet closed, per channel.
+  private final AtomicIntegerArray outstanding;
+  private final AtomicInteger nextStart = new AtomicInteger();
+
+  /** Creates a pool of {@code size} channels to {@code target}. */
+  public static ChannelPool create(String target, ChannelCredentials credentials, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("size must be positive: " + size);
+    }
+    ManagedChannel[] channels = new ManagedChannel[size];
+    for (int i = 0; i < size; i++) {
+      channels[i] = Grpc.newChannelBuilder(target, credentials).build();
+    }
+    return new ChannelPool(channels);
+  }
+
+  /** Creates a pool of the given channels, which it takes ownership of. */
+  public ChannelPool(ManagedChannel... channels) {
+    if (channels.length == 0) {
+      throw new IllegalArgumentException("channels must not be empty");
+    }
+    this.channels = channels.clone();
+    this.outstanding = new AtomicIntegerArray(channels.length);
+  }
+
+  @Override
+  public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+      MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+    int channel = pick();
+    return new CountingCall<>(channels[channel].newCall(method, callOptions), channel);
+  }
+
+  /** Returns the channel with the fewest outstanding calls. */
+  private int pick() {
+    int start = (nextStart.getAndIncrement() & Integer.MAX_VALUE) % channels.length;
+    int best = start;
+    int bestOutstanding = outstanding.get(start);
+    for (int n = 1; n < channels.length && bestOutstanding > 0; n++) {
+      int i = (start + n) % channels.length;
+      int calls = outstanding.get(i);
+      if (calls < bestOutstanding) {
+        best = i;
+        bestOutstanding = calls;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public String authority() {
+    return channels[0].authority();
+  }
+
+  @Override
+  public ManagedChannel shutdown() {
+    for (ManagedChannel channel : channels) {
+      channel.shutdown();
+    }
+    return this;
+  }
+
+  @Override
+  public ManagedChannel shutdownNow() {
+    for (ManagedChannel channel : channels) {
+      channel.shutdownNow();
+    }
+    return this;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    for (ManagedChannel channel : channels) {
+      if (!channel.isShutdown()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    for (ManagedChannel channel : channels) {
+      if (!channel.isTerminated()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    for (ManagedChannel channel : channels) {
+      if (!channel.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "ChannelPool{size=" + channels.length + ", outstanding=" + outstanding + "}";
+  }
+
+  /** Counts a call as outstanding on its channel from start until close. */
+  private final class CountingCall<ReqT, RespT>
+      extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+    private final int channel;
+
+    CountingCall(ClientCall<ReqT, RespT> delegate, int channel) {
+      super(delegate);
+      this.channel = channel;
+    }
+
+    @Override
+    public void start(Listener<RespT> responseListener, Metadata headers) {
+      outstanding.incrementAndGet(channel);
+      try {
+        super.start(
+            new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+                responseListener) {
+              @Override
+              public void onClose(Status status, Metadata trailers) {
+                outstanding.decrementAndGet(channel);
+                super.onClose(status, trailers);
+              }
+            }, headers);
+      } catch (RuntimeException e) {
+        outstanding.decrementAndGet(channel);
+        throw e;
+      }
+    }
+  }
+}
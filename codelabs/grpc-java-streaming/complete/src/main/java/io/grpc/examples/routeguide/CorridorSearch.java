@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds the features within a given distance of a route.
+ *
+ * <p>Each segment of the route is split into pieces a few corridor widths long. The bounding box
+ * of each piece, widened by the radius, is looked up in the store's {@link SpatialIndex}, and
+ * each candidate is then checked with the haversine distance to the closest point of the piece.
+ * That closest point is found in a local equirectangular projection, which is accurate for
+ * pieces of up to a few hundred kilometres. Routes crossing the antimeridian are not supported.
+ *
+ * <p>The index returns the candidates of a piece cell by cell, so the matches of each piece are
+ * sorted by the position of their closest point along it before the next piece is searched.
+ * Candidates whose closest point lies beyond the end of a piece are left to the next piece of the
+ * segment, which also finds them, so that they do not come before that piece's matches.
+ */
+final class CorridorSearch implements IntConsumer {
+  private static final double COORD_FACTOR = 1e7;
+  /** The length of a piece, in corridor half-widths. */
+  private static final int PIECE_LENGTH = 8;
+  private static final int MAX_PIECES_PER_SEGMENT = 1024;
+  /** The resolution of positions along a piece in match keys, which fits in 31 bits. */
+  private static final int POSITION_STEPS = Integer.MAX_VALUE;
+
+  private final FeatureStore store;
+  private final int radiusMeters;
+  // The radius in E7 degrees of latitude, rounded up.
+  private final long latitudeRadius;
+  // Features already returned, or unnamed.
+  private final BitSet decided = new BitSet();
+  // Each match is keyed by its position along its piece in the high bits and its index in the
+  // low 31 bits, so that sorting the keys of a piece puts its matches in route order.
+  private long[] matches = new long[16];
+  private int count;
+
+  // The piece being searched.
+  private int fromLatitude;
+  private int fromLongitude;
+  private int toLatitude;
+  private int toLongitude;
+  private double cosLatitude;
+  private boolean lastPieceOfSegment;
+
+  private CorridorSearch(FeatureStore store, int radiusMeters) {
+    this.store = store;
+    this.radiusMeters = radiusMeters;
+    this.latitudeRadius = SpatialIndex.latitudeSpan(radiusMeters);
+  }
+
+  /**
+   * Returns the indices of the named features within {@code radiusMeters} of {@code path}, each
+   * once, in the order in which the path first passes them, i.e. of their closest points on the
+   * first stretch of the path that comes within {@code radiusMeters}.
+   *
+   * @param cancelled polled between segments; once it returns {@code true} the search stops
+   * @throws CancellationException if the search was stopped
+   */
+  static int[] search(FeatureStore store, List<Point> path, int radiusMeters,
+      BooleanSupplier cancelled) {
+    CorridorSearch search = new CorridorSearch(store, radiusMeters);
+    if (path.size() == 1) {
+      search.searchSegment(path.get(0), path.get(0));
+    }
+    for (int i = 1; i < path.size(); i++) {
+      if (cancelled.getAsBoolean()) {
+        throw new CancellationException("ListFeaturesAlongRoute search abandoned");
+      }
+      search.searchSegment(path.get(i - 1), path.get(i));
+    }
+    int[] indices = new int[search.count];
+    for (int i = 0; i < indices.length; i++) {
+      indices[i] = (int) (search.matches[i] & Integer.MAX_VALUE);
+    }
+    return indices;
+  }
+
+  private void searchSegment(Point from, Point to) {
+    double cos = Math.cos(Math.toRadians(
+        (from.getLatitude() + (double) to.getLatitude()) / 2 / COORD_FACTOR));
+    double length = Math.max(Math.abs((double) to.getLatitude() - from.getLatitude()),
+        Math.abs((double) to.getLongitude() - from.getLongitude()) * cos);
+    int pieces = (int) Math.max(1,
+        Math.min(MAX_PIECES_PER_SEGMENT, Math.ceil(length / (PIECE_LENGTH * latitudeRadius))));
+    cosLatitude = cos;
+    for (int p = 0; p < pieces; p++) {
+      fromLatitude = interpolate(from.getLatitude(), to.getLatitude(), p, pieces);
+      fromLongitude = interpolate(from.getLongitude(), to.getLongitude(), p, pieces);
+      toLatitude = interpolate(from.getLatitude(), to.getLatitude(), p + 1, pieces);
+      toLongitude = interpolate(from.getLongitude(), to.getLongitude(), p + 1, pieces);
+      lastPieceOfSegment = p == pieces - 1;
+      int first = count;
+      searchPiece();
+      Arrays.sort(matches, first, count);
+    }
+  }
+
+  private static int interpolate(int from, int to, int step, int steps) {
+    return (int) (from + ((long) to - from) * step / steps);
+  }
+
+  private void searchPiece() {
+    long bottom = Math.min(fromLatitude, toLatitude) - latitudeRadius;
+    long top = Math.max(fromLatitude, toLatitude) + latitudeRadius;
+    long longitudeRadius = SpatialIndex.longitudeSpan(
+        latitudeRadius, Math.max(Math.abs(bottom), Math.abs(top)));
+    long left = Math.min(fromLongitude, toLongitude) - longitudeRadius;
+    long right = Math.max(fromLongitude, toLongitude) + longitudeRadius;
+    store.spatialIndex().query(left, right, bottom, top, this);
+  }
+
+  /** Checks one candidate of the current piece. */
+  @Override
+  public void accept(int index) {
+    if (decided.get(index)) {
+      return;
+    }
+    if (!RouteGuideUtil.exists(store.get(index))) {
+      decided.set(index);
+      return;
+    }
+    int latitude = store.latitude(index);
+    int longitude = store.longitude(index);
+    double t = positionOnPiece(latitude, longitude);
+    if (t > 1 && !lastPieceOfSegment) {
+      return;
+    }
+    t = Math.max(0, Math.min(1, t));
+    if (distanceToPiece(latitude, longitude, t) <= radiusMeters) {
+      decided.set(index);
+      if (count == matches.length) {
+        matches = Arrays.copyOf(matches, count * 2);
+      }
+      matches[count++] = Math.round(t * POSITION_STEPS) << 31 | index;
+    }
+  }
+
+  /**
+   * Returns the position along the current piece's line of the point closest to the given point,
+   * where 0 is the start of the piece and 1 its end.
+   */
+  private double positionOnPiece(int latitude, int longitude) {
+    double dx = ((double) toLongitude - fromLongitude) * cosLatitude;
+    double dy = (double) toLatitude - fromLatitude;
+    double px = ((double) longitude - fromLongitude) * cosLatitude;
+    double py = (double) latitude - fromLatitude;
+    double lengthSquared = dx * dx + dy * dy;
+    return lengthSquared == 0 ? 0 : (px * dx + py * dy) / lengthSquared;
+  }
+
+  /**
+   * Returns the distance in metres from the given point to the point at position {@code t} of
+   * the current piece.
+   */
+  private int distanceToPiece(int latitude, int longitude, double t) {
+    return RouteGuideUtil.calcDistance(latitude, longitude,
+        (int) Math.round(fromLatitude + t * ((double) toLatitude - fromLatitude)),
+        (int) Math.round(fromLongitude + t * ((double) toLongitude - fromLongitude)));
+  }
+}
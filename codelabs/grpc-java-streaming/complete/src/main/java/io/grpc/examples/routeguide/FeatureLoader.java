@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.util.JsonFormat;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Loads large feature files on several threads.
+ *
+ * <p>The file is read sequentially in chunks of about {@link #CHUNK_BYTES}, each cut at the last
+ * record boundary it contains. The chunks are parsed concurrently and their features are
+ * concatenated in file order, so the result is the same as that of a sequential parse. At most
+ * two chunks per thread are held in memory at a time.
+ *
+ * <p>Two splittable formats are supported, chosen by file extension:
+ * <ul>
+ *   <li>{@code .ndjson} or {@code .jsonl}: one JSON {@link Feature} per line, as printed by
+ *       {@code JsonFormat.printer().omittingInsignificantWhitespace()};
+ *   <li>{@code .pb} or {@code .binpb}: length-delimited {@link Feature} messages, as written by
+ *       {@link Feature#writeDelimitedTo}.
+ * </ul>
+ * Any other file is parsed as a single JSON {@link FeatureDatabase} by
+ * {@link RouteGuideUtil#parseFeatures}, which cannot be split.
+ */
+final class FeatureLoader {
+  private static final Logger logger = Logger.getLogger(FeatureLoader.class.getName());
+
+  /** Bytes read per chunk, unless a single record is larger. */
+  static final int CHUNK_BYTES = 8 << 20;
+  private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  /** The supported file formats. */
+  enum Format {
+    /** A single JSON {@link FeatureDatabase}. */
+    JSON,
+    /** Newline-delimited JSON features. */
+    NDJSON,
+    /** Length-delimited binary features. */
+    DELIMITED;
+
+    static Format of(Path file) {
+      String name = file.getFileName().toString();
+      if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+        return NDJSON;
+      }
+      if (name.endsWith(".pb") || name.endsWith(".binpb")) {
+        return DELIMITED;
+      }
+      return JSON;
+    }
+  }
+
+  private final int threads;
+
+  FeatureLoader(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be positive: " + threads);
+    }
+    this.threads = threads;
+  }
+
+  /** Loads all features of {@code file}, in file order. */
+  List<Feature> load(Path file) throws IOException {
+    Format format = Format.of(file);
+    if (format == Format.JSON) {
+      return RouteGuideUtil.parseFeatures(file.toUri().toURL());
+    }
+    long startNanos = System.nanoTime();
+    Progress progress = new Progress(file, Files.size(file));
+    ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "feature-loader-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    try {
+      List<Future<List<Feature>>> chunks = readChunks(file, format, pool, progress);
+      List<Feature> features = new ArrayList<>();
+      for (Future<List<Feature>> chunk : chunks) {
+        features.addAll(chunk.get());
+      }
+      logger.info(String.format("Loaded %d features from %s (%d MiB) in %d ms on %d threads",
+          features.size(), file, progress.totalBytes >> 20,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), threads));
+      return features;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while loading " + file, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to load " + file, e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /** Reads {@code file} sequentially, submitting each chunk to {@code pool} for parsing. */
+  private List<Future<List<Feature>>> readChunks(Path file, final Format format,
+      ExecutorService pool, final Progress progress) throws IOException, InterruptedException {
+    List<Future<List<Feature>>> chunks = new ArrayList<>();
+    final Semaphore inFlight = new Semaphore(threads * 2);
+    InputStream in = Files.newInputStream(file);
+    try {
+      byte[] buffer = new byte[CHUNK_BYTES];
+      int filled = 0;
+      boolean eof = false;
+      while (!eof) {
+        int read = in.read(buffer, filled, buffer.length - filled);
+        if (read < 0) {
+          eof = true;
+        } else {
+          filled += read;
+          if (filled < buffer.length) {
+            continue;
+          }
+        }
+        final int end = boundary(format, buffer, filled, eof);
+        if (end == 0 && !eof) {
+          // A single record larger than the buffer.
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          continue;
+        }
+        final byte[] chunk = buffer;
+        inFlight.acquire();
+        chunks.add(pool.submit(() -> {
+          try {
+            List<Feature> features = parse(format, chunk, end);
+            progress.chunkDone(end, features.size());
+            return features;
+          } finally {
+            inFlight.release();
+          }
+        }));
+        buffer = new byte[Math.max(CHUNK_BYTES, filled - end)];
+        System.arraycopy(chunk, end, buffer, 0, filled - end);
+        filled -= end;
+      }
+    } finally {
+      in.close();
+    }
+    return chunks;
+  }
+
+  /**
+   * Returns the end of the last complete record in {@code buffer[0, filled)}.
+   *
+   * @throws IOException if {@code eof} is set and the buffer ends with an incomplete record
+   */
+  private static int boundary(Format format, byte[] buffer, int filled, boolean eof)
+      throws IOException {
+    if (format == Format.NDJSON) {
+      if (eof) {
+        return filled;
+      }
+      for (int i = filled - 1; i >= 0; i--) {
+        if (buffer[i] == '\n') {
+          return i + 1;
+        }
+      }
+      return 0;
+    }
+    int end = 0;
+    while (end < filled) {
+      // Decode the varint length prefix, stopping if it or its record is cut off.
+      long length = 0;
+      int pos = end;
+      int shift = 0;
+      while (pos < filled && (buffer[pos] & 0x80) != 0 && shift < 35) {
+        length |= (long) (buffer[pos++] & 0x7f) << shift;
+        shift += 7;
+      }
+      if (pos == filled) {
+        break;
+      }
+      if (shift == 35) {
+        throw new IOException("Malformed record length at chunk offset " + end);
+      }
+      length |= (long) (buffer[pos++] & 0x7f) << shift;
+      if (length > filled - pos) {
+        break;
+      }
+      end = pos + (int) length;
+    }
+    if (eof && end != filled) {
+      throw new IOException("Truncated record at the end of the file");
+    }
+    return end;
+  }
+
+  /** Parses the complete records in {@code chunk[0, end)}. */
+  private static List<Feature> parse(Format format, byte[] chunk, int end) throws IOException {
+    List<Feature> features = new ArrayList<>();
+    if (format == Format.NDJSON) {
+      JsonFormat.Parser parser = JsonFormat.parser();
+      int start = 0;
+      while (start < end) {
+        int newline = start;
+        while (newline < end && chunk[newline] != '\n') {
+          newline++;
+        }
+        String line = new String(chunk, start, newline - start, StandardCharsets.UTF_8).trim();
+        if (!line.isEmpty()) {
+          Feature.Builder feature = Feature.newBuilder();
+          parser.merge(line, feature);
+          features.add(feature.build());
+        }
+        start = newline + 1;
+      }
+      return features;
+    }
+    CodedInputStream in = CodedInputStream.newInstance(chunk, 0, end);
+    while (!in.isAtEnd()) {
+      int limit = in.pushLimit(in.readRawVarint32());
+      features.add(Feature.parseFrom(in));
+      in.popLimit(limit);
+    }
+    return features;
+  }
+
+  /** Logs the progress of one load every {@link #PROGRESS_INTERVAL_NANOS}. */
+  private static final class Progress {
+    private final Path file;
+    private final long totalBytes;
+    // Guarded by this.
+    private long bytes;
+    // Guarded by this.
+    private long features;
+    // Guarded by this.
+    private long lastLogNanos = System.nanoTime();
+
+    Progress(Path file, long totalBytes) {
+      this.file = file;
+      this.totalBytes = totalBytes;
+    }
+
+    synchronized void chunkDone(long chunkBytes, int chunkFeatures) {
+      bytes += chunkBytes;
+      features += chunkFeatures;
+      long now = System.nanoTime();
+      if (now - lastLogNanos >= PROGRESS_INTERVAL_NANOS) {
+        lastLogNanos = now;
+        logger.info(String.format("Loading %s: %d of %d MiB (%d%%), %d features", file,
+            bytes >> 20, totalBytes >> 20, totalBytes == 0 ? 100 : bytes * 100 / totalBytes,
+            features));
+      }
+    }
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Finds the features of a {@link FeatureStore} that lie within a rectangle.
+ *
+ * <p>The store is scanned in blocks of {@link #CHECK_INTERVAL} features, each filtered into a
+ * bitmap by {@link FeatureStore#filter}. Before each block the scanner asks whether anybody
+ * still wants the result, so a scan for a cancelled or expired call stops after at most one
+ * block instead of running to the end of the database.
+ *
+ * <p>When a rectangle is expected to contain many features, the store is split into partitions
+ * that are scanned concurrently on a dedicated {@link ForkJoinPool}. Each partition's matches are
+ * handed to a {@link PartitionListener} as soon as they can be, either in store order or in
+ * completion order, so that the first results can be streamed before the whole scan is done.
+ */
+final class FeatureScanner {
+  /** Number of features scanned between two cancellation checks. */
+  static final int CHECK_INTERVAL = 4096;
+  /** Partitions per pool thread, so that uneven partitions still keep every thread busy. */
+  private static final int PARTITIONS_PER_THREAD = 4;
+
+  /** Receives the matches of a scan, one partition at a time. */
+  interface PartitionListener {
+    /** Called with the matches of one partition. Calls are never concurrent. */
+    void onPartition(int[] matches);
+  }
+
+  private final long parallelThreshold;
+  private final ForkJoinPool pool;
+
+  private final AtomicLong scans = new AtomicLong();
+  private final AtomicLong parallelScans = new AtomicLong();
+  private final AtomicLong abortedScans = new AtomicLong();
+  private final AtomicLong featuresScanned = new AtomicLong();
+  private final AtomicLong featuresSkipped = new AtomicLong();
+
+  /** Creates a scanner that always scans on the calling thread. */
+  FeatureScanner() {
+    this(0, 0);
+  }
+
+  /**
+   * Creates a scanner that scans in parallel on {@code parallelism} threads once a rectangle is
+   * estimated to contain at least {@code parallelThreshold} features. A threshold of zero
+   * disables parallel scans.
+   */
+  FeatureScanner(long parallelThreshold, int parallelism) {
+    this.parallelThreshold = parallelThreshold;
+    this.pool = parallelThreshold > 0 ? new ForkJoinPool(parallelism) : null;
+  }
+
+  /**
+   * Returns the indices, in store order, of all existing features within the given bounds
+   * (inclusive).
+   *
+   * @param cancelled polled between blocks; once it returns {@code true} the scan is abandoned
+   * @throws CancellationException if the scan was abandoned
+   */
+  int[] scan(FeatureStore store, long left, long right, long bottom, long top,
+      BooleanSupplier cancelled) {
+    return scan(store, left, right, bottom, top, cancelled, null, true);
+  }
+
+  /**
+   * Like {@link #scan(FeatureStore, long, long, long, long, BooleanSupplier)}, additionally
+   * passing each partition's matches to {@code listener} while the scan is still running.
+   *
+   * @param listener receives the matches of each partition, or {@code null}
+   * @param ordered whether {@code listener} must receive the partitions in store order; otherwise
+   *     they are delivered as soon as they complete
+   */
+  int[] scan(FeatureStore store, long left, long right, long bottom, long top,
+      BooleanSupplier cancelled, PartitionListener listener, boolean ordered) {
+    scans.incrementAndGet();
+    try {
+      if (pool != null && store.estimateCount(left, right, bottom, top) >= parallelThreshold) {
+        parallelScans.incrementAndGet();
+        return scanParallel(store, left, right, bottom, top, cancelled, listener, ordered);
+      }
+      int[] matches = scanRange(store, 0, store.size(), left, right, bottom, top, cancelled);
+      if (listener != null) {
+        listener.onPartition(matches);
+      }
+      return matches;
+    } catch (CancellationException e) {
+      abortedScans.incrementAndGet();
+      throw e;
+    }
+  }
+
+  private int[] scanParallel(final FeatureStore store, final long left, final long right,
+      final long bottom, final long top, final BooleanSupplier cancelled,
+      PartitionListener listener, boolean ordered) {
+    int size = store.size();
+    int partitions = (int) Math.min(pool.getParallelism() * PARTITIONS_PER_THREAD,
+        Math.max(1, (size + CHECK_INTERVAL - 1) / CHECK_INTERVAL));
+    final Partitions results = new Partitions(partitions, listener, ordered);
+    List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions);
+    for (int p = 0; p < partitions; p++) {
+      final int partition = p;
+      final int from = (int) ((long) size * p / partitions);
+      final int to = (int) ((long) size * (p + 1) / partitions);
+      tasks.add(pool.submit(new Runnable() {
+        @Override
+        public void run() {
+          results.complete(partition,
+              scanRange(store, from, to, left, right, bottom, top, cancelled));
+        }
+      }));
+    }
+    RuntimeException failure = null;
+    for (ForkJoinTask<?> task : tasks) {
+      try {
+        task.join();
+      } catch (RuntimeException e) {
+        // Keep waiting for the other partitions, which stop at their next check.
+        if (failure == null || failure instanceof CancellationException) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return results.merge();
+  }
+
+  /** Scans {@code [from, to)}, checking for cancellation before each block. */
+  private int[] scanRange(FeatureStore store, int from, int to, long left, long right,
+      long bottom, long top, BooleanSupplier cancelled) {
+    int[] matches = new int[16];
+    int count = 0;
+    long[] block = new long[CHECK_INTERVAL / 64];
+    for (int start = from; start < to; start += CHECK_INTERVAL) {
+      if (cancelled.getAsBoolean()) {
+        featuresScanned.addAndGet(start - from);
+        featuresSkipped.addAndGet(to - start);
+        throw new CancellationException("ListFeatures scan abandoned");
+      }
+      int end = Math.min(to, start + CHECK_INTERVAL);
+      if (store.filter(start, end, left, right, bottom, top, block) == 0) {
+        continue;
+      }
+      for (int word = 0; word < (end - start + 63) >>> 6; word++) {
+        for (long bits = block[word]; bits != 0; bits &= bits - 1) {
+          int i = start + (word << 6) + Long.numberOfTrailingZeros(bits);
+          if (RouteGuideUtil.exists(store.get(i))) {
+            if (count == matches.length) {
+              matches = Arrays.copyOf(matches, count * 2);
+            }
+            matches[count++] = i;
+          }
+        }
+      }
+    }
+    featuresScanned.addAndGet(to - from);
+    return Arrays.copyOf(matches, count);
+  }
+
+  /** Stops the scan threads, waiting briefly for running scans. */
+  void shutdown() throws InterruptedException {
+    if (pool != null) {
+      pool.shutdown();
+      pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  long scanCount() {
+    return scans.get();
+  }
+
+  /** Returns the number of scans abandoned because every interested caller went away. */
+  long abortedScanCount() {
+    return abortedScans.get();
+  }
+
+  /** Returns the number of features that abandoned scans did not have to look at. */
+  long featuresSkipped() {
+    return featuresSkipped.get();
+  }
+
+  @Override
+  public String toString() {
+    return "FeatureScanner{filter=" + BoundsFilter.implementation() + ", scans=" + scans.get()
+        + ", parallel=" + parallelScans.get()
+        + ", aborted=" + abortedScans.get() + ", featuresScanned=" + featuresScanned.get()
+        + ", featuresSkipped=" + featuresSkipped.get() + "}";
+  }
+
+  /** Collects the per-partition matches of one parallel scan. */
+  private static final class Partitions {
+    private final int[][] matches;
+    private final PartitionListener listener;
+    private final boolean ordered;
+    // Guarded by this. The first partition not yet handed to an ordered listener.
+    private int nextToDeliver;
+
+    Partitions(int count, PartitionListener listener, boolean ordered) {
+      this.matches = new int[count][];
+      this.listener = listener;
+      this.ordered = ordered;
+    }
+
+    synchronized void complete(int partition, int[] partitionMatches) {
+      matches[partition] = partitionMatches;
+      if (listener == null) {
+        return;
+      }
+      if (!ordered) {
+        listener.onPartition(partitionMatches);
+        return;
+      }
+      while (nextToDeliver < matches.length && matches[nextToDeliver] != null) {
+        listener.onPartition(matches[nextToDeliver++]);
+      }
+    }
+
+    /** Concatenates the matches of all partitions in store order. */
+    synchronized int[] merge() {
+      int total = 0;
+      for (int[] partitionMatches : matches) {
+        total += partitionMatches.length;
+      }
+      int[] merged = new int[total];
+      int offset = 0;
+      for (int[] partitionMatches : matches) {
+        System.arraycopy(partitionMatches, 0, merged, offset, partitionMatches.length);
+        offset += partitionMatches.length;
+      }
+      return merged;
+    }
+  }
+}
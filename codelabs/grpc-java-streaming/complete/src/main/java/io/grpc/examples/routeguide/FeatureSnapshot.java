@@ -0,0 +1,319 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists a loaded {@link FeatureStore}, including its location index, so that a restarting
+ * server can skip parsing the feature file and rebuilding the index.
+ *
+ * <p>A snapshot starts with a fixed-size header: magic, format version, the size and
+ * modification time of the source file it was built from, and the length and CRC32 of the
+ * payload. The payload holds the coordinate columns, the location hash table, the
+ * {@link SpatialIndex} and the feature names, all big-endian. A snapshot is only used if the
+ * header matches the current format and source file and the checksum matches; otherwise the
+ * caller loads the source file again.
+ *
+ * <p>Snapshots are read through a single memory mapping, which Java limits to 2 GiB. Stores too
+ * large for that are not written, and are loaded from the source file on every start.
+ */
+final class FeatureSnapshot {
+  private static final Logger logger = Logger.getLogger(FeatureSnapshot.class.getName());
+
+  private static final int MAGIC = 0x52475346; // "RGSF"
+  /** Bumped whenever the payload layout changes. */
+  static final int VERSION = 2;
+  private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 8;
+  /** The size of the largest snapshot {@link #read} can map. */
+  private static final long MAX_SNAPSHOT_BYTES = Integer.MAX_VALUE;
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private FeatureSnapshot() {}
+
+  /**
+   * Reads the snapshot at {@code snapshot} if it was built from the current contents of
+   * {@code source}.
+   *
+   * @return the restored store, or {@code null} if there is no usable snapshot
+   */
+  static FeatureStore read(Path snapshot, Path source) throws IOException {
+    long startNanos = System.nanoTime();
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(snapshot, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      logger.info("No feature snapshot at " + snapshot);
+      return null;
+    }
+    try {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > MAX_SNAPSHOT_BYTES) {
+        return stale(snapshot, "unexpected size " + size);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      if (buffer.getInt() != MAGIC) {
+        return stale(snapshot, "not a feature snapshot");
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        return stale(snapshot, "format version " + version + ", expected " + VERSION);
+      }
+      if (buffer.getLong() != Files.size(source)
+          || buffer.getLong() != Files.getLastModifiedTime(source).toMillis()) {
+        return stale(snapshot, source + " has changed");
+      }
+      long payloadBytes = buffer.getLong();
+      long checksum = buffer.getLong();
+      if (payloadBytes != size - HEADER_BYTES) {
+        return stale(snapshot, "truncated");
+      }
+      CRC32 crc = new CRC32();
+      crc.update(buffer.duplicate());
+      if (crc.getValue() != checksum) {
+        return stale(snapshot, "checksum mismatch");
+      }
+      FeatureStore store = readPayload(buffer);
+      logger.info(String.format("Restored %d features from %s in %d ms", store.size(), snapshot,
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+      return store;
+    } finally {
+      channel.close();
+    }
+  }
+
+  private static FeatureStore readPayload(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    int[] latitudes = readInts(buffer, count);
+    int[] longitudes = readInts(buffer, count);
+    int[] slots = readInts(buffer, buffer.getInt());
+    int minLatitude = buffer.getInt();
+    int minLongitude = buffer.getInt();
+    long cellHeight = buffer.getLong();
+    long cellWidth = buffer.getLong();
+    int rows = buffer.getInt();
+    int columns = buffer.getInt();
+    int[] cellStart = readInts(buffer, rows * columns + 1);
+    int[] entries = readInts(buffer, count);
+    SpatialIndex spatialIndex = new SpatialIndex(latitudes, longitudes, minLatitude,
+        minLongitude, cellHeight, cellWidth, rows, columns, cellStart, entries);
+    int[] nameLengths = readInts(buffer, count);
+    byte[] names = new byte[buffer.remaining()];
+    buffer.get(names);
+    Feature[] features = new Feature[count];
+    int offset = 0;
+    for (int i = 0; i < count; i++) {
+      features[i] = Feature.newBuilder()
+          .setName(new String(names, offset, nameLengths[i], StandardCharsets.UTF_8))
+          .setLocation(Point.newBuilder().setLatitude(latitudes[i]).setLongitude(longitudes[i]))
+          .build();
+      offset += nameLengths[i];
+    }
+    return new FeatureStore(features, latitudes, longitudes, slots, spatialIndex);
+  }
+
+  private static int[] readInts(ByteBuffer buffer, int count) {
+    int[] values = new int[count];
+    buffer.asIntBuffer().get(values);
+    // Cast for Java 8, where ByteBuffer does not override position(int).
+    ((Buffer) buffer).position(buffer.position() + count * 4);
+    return values;
+  }
+
+  private static FeatureStore stale(Path snapshot, String reason) {
+    logger.info("Ignoring feature snapshot " + snapshot + ": " + reason);
+    return null;
+  }
+
+  /**
+   * Writes a snapshot of {@code store}, which was loaded from a source file of
+   * {@code sourceSize} bytes last modified at {@code sourceModified} milliseconds since the epoch.
+   * Both must have been read before the file was loaded, so that a file modified during the load
+   * makes the snapshot stale. The snapshot is written to a temporary file first and then moved
+   * into place, so a crash never leaves a partial snapshot behind. A store whose snapshot would
+   * be too large to read back is not written.
+   */
+  static void write(FeatureStore store, Path snapshot, long sourceSize, long sourceModified)
+      throws IOException {
+    long startNanos = System.nanoTime();
+    long snapshotBytes = HEADER_BYTES + payloadSize(store);
+    if (snapshotBytes > MAX_SNAPSHOT_BYTES) {
+      logger.warning(String.format("Not writing feature snapshot %s: its %d MiB exceed the %d MiB"
+          + " that can be mapped", snapshot, snapshotBytes >> 20, MAX_SNAPSHOT_BYTES >> 20));
+      return;
+    }
+    Path parent = snapshot.toAbsolutePath().getParent();
+    Path temp = Files.createTempFile(parent, snapshot.getFileName().toString(), TEMP_SUFFIX);
+    try {
+      FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+      try {
+        channel.position(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+        writePayload(store, out);
+        out.flush();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified)
+            .putLong(out.size()).putLong(crc.getValue());
+        ((Buffer) header).flip();
+        while (header.hasRemaining()) {
+          channel.write(header, HEADER_BYTES - header.remaining());
+        }
+        channel.force(true);
+      } finally {
+        channel.close();
+      }
+      Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    logger.info(String.format("Wrote feature snapshot %s (%d MiB) in %d ms", snapshot,
+        Files.size(snapshot) >> 20,
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+  }
+
+  /** Returns the number of bytes {@link #writePayload} writes for {@code store}. */
+  private static long payloadSize(FeatureStore store) {
+    long count = store.size();
+    SpatialIndex spatialIndex = store.spatialIndex();
+    long ints = 1 + count * 2 + 1 + store.slotTable().length + 4
+        + spatialIndex.cellStart.length + count * 2;
+    long bytes = ints * 4 + 2 * 8;
+    for (int i = 0; i < count; i++) {
+      bytes += store.get(i).getNameBytes().size();
+    }
+    return bytes;
+  }
+
+  private static void writePayload(FeatureStore store, DataOutputStream out) throws IOException {
+    int count = store.size();
+    out.writeInt(count);
+    writeInts(out, store.latitudeColumn());
+    writeInts(out, store.longitudeColumn());
+    int[] slots = store.slotTable();
+    out.writeInt(slots.length);
+    writeInts(out, slots);
+    SpatialIndex spatialIndex = store.spatialIndex();
+    out.writeInt(spatialIndex.minLatitude);
+    out.writeInt(spatialIndex.minLongitude);
+    out.writeLong(spatialIndex.cellHeight);
+    out.writeLong(spatialIndex.cellWidth);
+    out.writeInt(spatialIndex.rows);
+    out.writeInt(spatialIndex.columns);
+    writeInts(out, spatialIndex.cellStart);
+    writeInts(out, spatialIndex.entries);
+    for (int i = 0; i < count; i++) {
+      out.writeInt(store.get(i).getNameBytes().size());
+    }
+    for (int i = 0; i < count; i++) {
+      store.get(i).getNameBytes().writeTo(out);
+    }
+  }
+
+  private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+    byte[] bytes = new byte[1 << 16];
+    for (int from = 0; from < values.length; from += bytes.length / 4) {
+      int count = Math.min(values.length - from, bytes.length / 4);
+      ByteBuffer.wrap(bytes).asIntBuffer().put(values, from, count);
+      out.write(bytes, 0, count * 4);
+    }
+  }
+
+  /**
+   * Restores the store from {@code snapshot} if it is current, and otherwise loads
+   * {@code source} with {@code loader}. A freshly loaded store is written to a new snapshot on a
+   * background thread, so the server can start serving meanwhile; failing to write it is only
+   * logged.
+   */
+  static FeatureStore loadOrRestore(final Path snapshot, final Path source, FeatureLoader loader)
+      throws IOException {
+    deleteTempFiles(snapshot);
+    FeatureStore restored;
+    try {
+      restored = read(snapshot, source);
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to read feature snapshot " + snapshot, e);
+      restored = null;
+    }
+    if (restored != null) {
+      return restored;
+    }
+    // Identify the file before loading it: the snapshot must not claim to hold a version of the
+    // file that was written after the one that was loaded.
+    final long sourceSize = Files.size(source);
+    final long sourceModified = Files.getLastModifiedTime(source).toMillis();
+    final FeatureStore store = new FeatureStore(loader.load(source));
+    Thread writer = new Thread("feature-snapshot-writer") {
+      @Override
+      public void run() {
+        try {
+          write(store, snapshot, sourceSize, sourceModified);
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Failed to write feature snapshot " + snapshot, e);
+        }
+      }
+    };
+    writer.setDaemon(true);
+    writer.start();
+    return store;
+  }
+
+  /**
+   * Deletes the temporary files of snapshots that were never finished, e.g. because the JVM
+   * exited while the daemon writer thread was still running.
+   */
+  private static void deleteTempFiles(Path snapshot) {
+    Path parent = snapshot.toAbsolutePath().getParent();
+    final String prefix = snapshot.getFileName().toString();
+    DirectoryStream.Filter<Path> filter = new DirectoryStream.Filter<Path>() {
+      @Override
+      public boolean accept(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(prefix) && name.endsWith(TEMP_SUFFIX);
+      }
+    };
+    try (DirectoryStream<Path> temps = Files.newDirectoryStream(parent, filter)) {
+      for (Path temp : temps) {
+        Files.deleteIfExists(temp);
+        logger.info("Deleted unfinished feature snapshot " + temp);
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to delete unfinished feature snapshots in " + parent, e);
+    }
+  }
+}
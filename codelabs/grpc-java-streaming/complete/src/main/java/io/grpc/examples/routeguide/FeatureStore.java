@@ -0,0 +1,211 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * An immutable, array-backed copy of the feature database.
+ *
+ * <p>Besides the {@link Feature} messages themselves, the coordinates are kept in primitive
+ * columns so that scans over the database only touch two {@code int[]} arrays, which
+ * {@link BoundsFilter} can compare against a rectangle several coordinates at a time. Features are
+ * addressed by their index, which stays stable for the lifetime of the store.
+ *
+ * <p>An open-addressing hash table over the packed coordinates answers exact-location lookups
+ * without allocating, and a {@link SpatialIndex} answers lookups by area.
+ */
+final class FeatureStore {
+  private final Feature[] features;
+  private final int[] latitudes;
+  private final int[] longitudes;
+  // Hash table slots holding a feature index plus one, or zero if empty.
+  private final int[] slots;
+  private final SpatialIndex spatialIndex;
+  // The bounding box of all features.
+  private int minLatitude = Integer.MAX_VALUE;
+  private int maxLatitude = Integer.MIN_VALUE;
+  private int minLongitude = Integer.MAX_VALUE;
+  private int maxLongitude = Integer.MIN_VALUE;
+
+  FeatureStore(Collection<Feature> features) {
+    this.features = features.toArray(new Feature[0]);
+    this.latitudes = new int[this.features.length];
+    this.longitudes = new int[this.features.length];
+    for (int i = 0; i < this.features.length; i++) {
+      latitudes[i] = this.features[i].getLocation().getLatitude();
+      longitudes[i] = this.features[i].getLocation().getLongitude();
+    }
+    computeBounds();
+    spatialIndex = new SpatialIndex(latitudes, longitudes);
+    int capacity = Integer.highestOneBit(Math.max(2, this.features.length * 2 - 1)) << 1;
+    slots = new int[capacity];
+    for (int i = 0; i < this.features.length; i++) {
+      int slot = slotOf(latitudes[i], longitudes[i]);
+      // Keep the first feature at each location, as a linear search would find it.
+      if (slots[slot] == 0) {
+        slots[slot] = i + 1;
+      }
+    }
+  }
+
+  /**
+   * Restores a store from the columns and indexes of an earlier one, as written by
+   * {@link FeatureSnapshot}.
+   */
+  FeatureStore(Feature[] features, int[] latitudes, int[] longitudes, int[] slots,
+      SpatialIndex spatialIndex) {
+    this.features = features;
+    this.latitudes = latitudes;
+    this.longitudes = longitudes;
+    this.slots = slots;
+    this.spatialIndex = spatialIndex;
+    computeBounds();
+  }
+
+  private void computeBounds() {
+    for (int i = 0; i < features.length; i++) {
+      minLatitude = Math.min(minLatitude, latitudes[i]);
+      maxLatitude = Math.max(maxLatitude, latitudes[i]);
+      minLongitude = Math.min(minLongitude, longitudes[i]);
+      maxLongitude = Math.max(maxLongitude, longitudes[i]);
+    }
+  }
+
+  /** Returns the number of features in the store. */
+  int size() {
+    return features.length;
+  }
+
+  /** Returns the feature at {@code index}. */
+  Feature get(int index) {
+    return features[index];
+  }
+
+  int latitude(int index) {
+    return latitudes[index];
+  }
+
+  int longitude(int index) {
+    return longitudes[index];
+  }
+
+  /** Returns the latitude column, for {@link FeatureSnapshot}. Must not be modified. */
+  int[] latitudeColumn() {
+    return latitudes;
+  }
+
+  /** Returns the longitude column, for {@link FeatureSnapshot}. Must not be modified. */
+  int[] longitudeColumn() {
+    return longitudes;
+  }
+
+  /** Returns the location hash table, for {@link FeatureSnapshot}. Must not be modified. */
+  int[] slotTable() {
+    return slots;
+  }
+
+  /** Returns the grid index over the coordinates of the store. */
+  SpatialIndex spatialIndex() {
+    return spatialIndex;
+  }
+
+  /**
+   * Estimates how many features lie within the given bounds, assuming they are spread evenly
+   * over the bounding box of the store.
+   */
+  long estimateCount(long left, long right, long bottom, long top) {
+    if (features.length == 0) {
+      return 0;
+    }
+    double width = overlap(left, right, minLongitude, maxLongitude);
+    double height = overlap(bottom, top, minLatitude, maxLatitude);
+    return (long) Math.ceil(features.length * width * height);
+  }
+
+  /** Returns the fraction of {@code [min, max]} covered by {@code [from, to]}. */
+  private static double overlap(long from, long to, long min, long max) {
+    long covered = Math.min(to, max) - Math.max(from, min);
+    if (covered < 0) {
+      return 0;
+    }
+    // Treat a store spread over a single coordinate as having unit extent.
+    return (covered + 1) / (double) (max - min + 1);
+  }
+
+  /**
+   * Returns the index of the first feature located exactly at the given coordinates, or -1 if
+   * there is none.
+   */
+  int indexOf(int latitude, int longitude) {
+    return slots[slotOf(latitude, longitude)] - 1;
+  }
+
+  /**
+   * Returns the slot holding the given coordinates, or the empty slot where they would go.
+   */
+  private int slotOf(int latitude, int longitude) {
+    int mask = slots.length - 1;
+    long key = ((long) latitude << 32) | (longitude & 0xffffffffL);
+    // Murmur3's 64-bit finalizer, so that nearby coordinates spread over the table.
+    long h = key;
+    h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+    h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    int slot = (int) h & mask;
+    while (slots[slot] != 0) {
+      int index = slots[slot] - 1;
+      if (latitudes[index] == latitude && longitudes[index] == longitude) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Sets bit {@code i - from} of {@code matches} for each feature {@code i} in {@code [from, to)}
+   * that lies within the given bounds (inclusive), clearing the other bits of the words covering
+   * the range.
+   *
+   * @return the number of matching features
+   */
+  int filter(int from, int to, long left, long right, long bottom, long top, long[] matches) {
+    if (left > right || bottom > top || left > Integer.MAX_VALUE || right < Integer.MIN_VALUE
+        || bottom > Integer.MAX_VALUE || top < Integer.MIN_VALUE) {
+      Arrays.fill(matches, 0, (to - from + 63) >>> 6, 0L);
+      return 0;
+    }
+    // The coordinates are ints, so clamping the bounds to the int range keeps the same matches.
+    return BoundsFilter.filter(latitudes, longitudes, from, to, clamp(left), clamp(right),
+        clamp(bottom), clamp(top), matches);
+  }
+
+  private static int clamp(long bound) {
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, bound));
+  }
+
+  /**
+   * Indicates whether the feature at {@code index} lies within the given bounds (inclusive).
+   */
+  boolean contains(int index, long left, long right, long bottom, long top) {
+    int lat = latitudes[index];
+    int lon = longitudes[index];
+    return lon >= left && lon <= right && lat >= bottom && lat <= top;
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Injects the kind of faults hedged GetFeature calls are meant to hide, for trying them out
+ * against a local server.
+ *
+ * <p>A random fraction of GetFeature calls is held for a fixed time before it is handled, like a
+ * request that hits a garbage collection pause or a slow disk. Calls beyond a limit of concurrent
+ * GetFeature calls are rejected with {@code UNAVAILABLE}, optionally asking the client to pause
+ * its retries and hedges with {@code grpc-retry-pushback-ms}. Other methods are not affected.
+ */
+final class GetFeatureFaults implements ServerInterceptor {
+  private static final Metadata.Key<String> RETRY_PUSHBACK_MS =
+      Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
+  private final double spikeRate;
+  private final long spikeMillis;
+  private final int concurrencyLimit;
+  private final int pushbackMillis;
+
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicLong spikes = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+
+  /**
+   * Creates an interceptor that holds a {@code spikeRate} fraction of GetFeature calls for
+   * {@code spikeMillis}, and rejects calls beyond {@code concurrencyLimit} concurrent ones (zero
+   * for no limit) with a pushback of {@code pushbackMillis} (zero for none).
+   */
+  GetFeatureFaults(double spikeRate, long spikeMillis, int concurrencyLimit, int pushbackMillis) {
+    if (spikeRate < 0 || spikeRate > 1) {
+      throw new IllegalArgumentException("spikeRate must be between 0 and 1: " + spikeRate);
+    }
+    this.spikeRate = spikeRate;
+    this.spikeMillis = spikeMillis;
+    this.concurrencyLimit = concurrencyLimit;
+    this.pushbackMillis = pushbackMillis;
+  }
+
+  /** Returns the faults configured by {@code options}, or {@code null} if there are none. */
+  static GetFeatureFaults fromOptions(RouteGuideOptions options) {
+    if (options.getFeatureSpikeRate == 0 && options.getFeatureConcurrencyLimit == 0) {
+      return null;
+    }
+    return new GetFeatureFaults(options.getFeatureSpikeRate, options.getFeatureSpikeMillis,
+        options.getFeatureConcurrencyLimit, options.getFeaturePushbackMillis);
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+      Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    if (!call.getMethodDescriptor().getFullMethodName()
+        .equals(RouteGuideGrpc.getGetFeatureMethod().getFullMethodName())) {
+      return next.startCall(call, headers);
+    }
+    if (active.incrementAndGet() > concurrencyLimit && concurrencyLimit > 0) {
+      active.decrementAndGet();
+      rejected.incrementAndGet();
+      Metadata trailers = new Metadata();
+      if (pushbackMillis != 0) {
+        trailers.put(RETRY_PUSHBACK_MS, Integer.toString(pushbackMillis));
+      }
+      call.close(Status.UNAVAILABLE.withDescription("Too many concurrent GetFeature calls"),
+          trailers);
+      return new ServerCall.Listener<ReqT>() {};
+    }
+    ServerCall.Listener<ReqT> listener;
+    try {
+      listener = next.startCall(call, headers);
+    } catch (RuntimeException e) {
+      active.decrementAndGet();
+      throw e;
+    }
+    return new ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT>(listener) {
+      @Override
+      public void onHalfClose() {
+        // The unary handler runs here, so holding the call delays the response.
+        if (spikeRate > 0 && ThreadLocalRandom.current().nextDouble() < spikeRate) {
+          spikes.incrementAndGet();
+          try {
+            TimeUnit.MILLISECONDS.sleep(spikeMillis);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        super.onHalfClose();
+      }
+
+      @Override
+      public void onComplete() {
+        active.decrementAndGet();
+        super.onComplete();
+      }
+
+      @Override
+      public void onCancel() {
+        active.decrementAndGet();
+        super.onCancel();
+      }
+    };
+  }
+
+  @Override
+  public String toString() {
+    return "GetFeatureFaults{spikes=" + spikes.get() + ", rejected=" + rejected.get() + "}";
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Client side of hedged GetFeature calls.
+ *
+ * <p>{@link #serviceConfig} returns a service config for
+ * {@code ManagedChannelBuilder.defaultServiceConfig} under which the channel sends another
+ * attempt of a GetFeature call whenever the previous one has not been answered within the
+ * hedging delay, and uses the first response. Attempts that fail with {@code UNAVAILABLE}, e.g.
+ * because the server shed them, do not fail the call; if the server asks for a pause with
+ * {@code grpc-retry-pushback-ms}, the next attempt waits that long, and a negative pushback stops
+ * hedging the call altogether.
+ *
+ * <p>The interceptor returned by {@link #newAttemptRecorder} counts which attempt answered each
+ * call, from the {@link RouteGuideHeaders#PREVIOUS_RPC_ATTEMPTS} header the server echoes.
+ */
+final class GetFeatureHedging {
+  /** The most attempts the channel makes by default, see {@code maxHedgedAttempts}. */
+  static final int MAX_ATTEMPTS = 5;
+
+  private GetFeatureHedging() {}
+
+  /**
+   * Returns a service config that hedges GetFeature with up to {@code maxAttempts} attempts,
+   * started {@code delayMillis} apart.
+   */
+  static Map<String, ?> serviceConfig(int maxAttempts, long delayMillis) {
+    if (maxAttempts < 2 || maxAttempts > MAX_ATTEMPTS) {
+      throw new IllegalArgumentException(
+          "maxAttempts must be between 2 and " + MAX_ATTEMPTS + ": " + maxAttempts);
+    }
+    if (delayMillis < 0) {
+      throw new IllegalArgumentException("delayMillis must not be negative: " + delayMillis);
+    }
+    Map<String, Object> name = new HashMap<>();
+    name.put("service", RouteGuideGrpc.SERVICE_NAME);
+    name.put("method", "GetFeature");
+    Map<String, Object> hedgingPolicy = new HashMap<>();
+    // Service config numbers are doubles, as if parsed from JSON.
+    hedgingPolicy.put("maxAttempts", (double) maxAttempts);
+    // Durations always use a decimal point, whatever the default locale.
+    hedgingPolicy.put("hedgingDelay",
+        String.format(Locale.ROOT, "%.3fs", delayMillis / 1000.0));
+    hedgingPolicy.put("nonFatalStatusCodes", Collections.singletonList("UNAVAILABLE"));
+    Map<String, Object> methodConfig = new HashMap<>();
+    methodConfig.put("name", Collections.singletonList(name));
+    methodConfig.put("hedgingPolicy", hedgingPolicy);
+    return Collections.singletonMap("methodConfig", Collections.singletonList(methodConfig));
+  }
+
+  /** Returns an interceptor that counts which attempt answered each GetFeature call. */
+  static AttemptRecorder newAttemptRecorder() {
+    return new AttemptRecorder();
+  }
+
+  /** Counts the GetFeature calls answered by each attempt. */
+  static final class AttemptRecorder implements ClientInterceptor {
+    // Calls answered by the first, second, ... attempt.
+    private final AtomicLongArray wins = new AtomicLongArray(MAX_ATTEMPTS);
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+        MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+      ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+      if (!method.getFullMethodName()
+          .equals(RouteGuideGrpc.getGetFeatureMethod().getFullMethodName())) {
+        return call;
+      }
+      return new ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT>(call) {
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+          super.start(
+              new ForwardingClientCallListener.SimpleForwardingClientCallListener<RespT>(
+                  responseListener) {
+                @Override
+                public void onHeaders(Metadata headers) {
+                  String previous = headers.get(RouteGuideHeaders.PREVIOUS_RPC_ATTEMPTS);
+                  int attempt = previous == null ? 0 : Integer.parseInt(previous);
+                  wins.incrementAndGet(Math.min(attempt, MAX_ATTEMPTS - 1));
+                  super.onHeaders(headers);
+                }
+              }, headers);
+        }
+      };
+    }
+
+    @Override
+    public String toString() {
+      long[] counts = new long[wins.length()];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = wins.get(i);
+      }
+      return "AttemptRecorder{winsByAttempt=" + Arrays.toString(counts) + "}";
+    }
+  }
+}
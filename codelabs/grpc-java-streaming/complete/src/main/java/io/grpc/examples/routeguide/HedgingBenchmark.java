@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.ClientInterceptors;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shows how hedging GetFeature calls hides a server's latency spikes.
+ *
+ * <p>Starts a local server whose {@link GetFeatureFaults} hold a fraction of GetFeature calls,
+ * then sends GetFeature calls at a fixed rate over a plain channel and over channels that hedge
+ * with two and three attempts, printing the latency percentiles and which attempts won.
+ *
+ * <p>Run with {@code ./gradlew hedgingBenchmark}.
+ */
+public final class HedgingBenchmark {
+  private static final int CALLS_PER_SECOND = 500;
+
+  private final Random random = new Random(1);
+
+  /** Usage: {@code SECONDS SPIKE_RATE SPIKE_MILLIS HEDGING_DELAY_MS}. */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 4) {
+      System.err.println("Usage: SECONDS SPIKE_RATE SPIKE_MILLIS HEDGING_DELAY_MS");
+      System.exit(1);
+    }
+    int seconds = Integer.parseInt(args[0]);
+    RouteGuideOptions options = new RouteGuideOptions();
+    options.getFeatureSpikeRate = Double.parseDouble(args[1]);
+    options.getFeatureSpikeMillis = Integer.parseInt(args[2]);
+    long hedgingDelayMillis = Long.parseLong(args[3]);
+    try (ServerSocket socket = new ServerSocket(0)) {
+      options.port = socket.getLocalPort();
+    }
+    RouteGuideServer server = new RouteGuideServer(options);
+    server.start();
+    try {
+      HedgingBenchmark benchmark = new HedgingBenchmark();
+      String target = "localhost:" + options.port;
+      benchmark.run("no hedging", target, null, seconds);
+      for (int attempts = 2; attempts <= 3; attempts++) {
+        benchmark.run(attempts + " attempts", target,
+            GetFeatureHedging.serviceConfig(attempts, hedgingDelayMillis), seconds);
+      }
+    } finally {
+      server.stop();
+    }
+  }
+
+  private void run(String name, String target, Map<String, ?> serviceConfig, int seconds)
+      throws InterruptedException {
+    ManagedChannelBuilder<?> builder =
+        Grpc.newChannelBuilder(target, InsecureChannelCredentials.create());
+    if (serviceConfig != null) {
+      builder.defaultServiceConfig(serviceConfig).enableRetry();
+    }
+    ManagedChannel channel = builder.build();
+    try {
+      // Warm up, then measure.
+      drive(channel, GetFeatureHedging.newAttemptRecorder(), Math.max(1, seconds / 5));
+      GetFeatureHedging.AttemptRecorder attempts = GetFeatureHedging.newAttemptRecorder();
+      Latencies latencies = drive(channel, attempts, seconds);
+      System.out.printf("%-12s %s %s%n", name, latencies, attempts);
+    } finally {
+      channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+
+  /** Sends GetFeature calls at a fixed rate for {@code seconds} and waits for every call. */
+  private Latencies drive(ManagedChannel channel, GetFeatureHedging.AttemptRecorder attempts,
+      int seconds) throws InterruptedException {
+    RouteGuideGrpc.RouteGuideStub stub =
+        RouteGuideGrpc.newStub(ClientInterceptors.intercept(channel, attempts));
+    final Latencies latencies = new Latencies();
+    final AtomicLong failures = new AtomicLong();
+    final Phaser outstanding = new Phaser(1);
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / CALLS_PER_SECOND;
+    long start = System.nanoTime();
+    for (long n = 0; n < (long) CALLS_PER_SECOND * seconds; n++) {
+      // Calls are sent on schedule even if earlier ones are late, so that queueing shows up
+      // in the latencies instead of slowing down the client.
+      final long due = start + n * intervalNanos;
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      }
+      outstanding.register();
+      stub.getFeature(Point.newBuilder()
+              .setLatitude(400_000_000 + random.nextInt(20_000_000))
+              .setLongitude(-750_000_000 + random.nextInt(20_000_000))
+              .build(),
+          new StreamObserver<Feature>() {
+            @Override
+            public void onNext(Feature feature) {}
+
+            @Override
+            public void onError(Throwable t) {
+              failures.incrementAndGet();
+              outstanding.arriveAndDeregister();
+            }
+
+            @Override
+            public void onCompleted() {
+              latencies.add(System.nanoTime() - due);
+              outstanding.arriveAndDeregister();
+            }
+          });
+    }
+    outstanding.arriveAndAwaitAdvance();
+    if (failures.get() > 0) {
+      System.out.println(failures + " calls failed");
+    }
+    return latencies;
+  }
+}
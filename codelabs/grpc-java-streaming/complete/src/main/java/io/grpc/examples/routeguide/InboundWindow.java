@@ -0,0 +1,127 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manual inbound flow control for one client-streaming call.
+ *
+ * <p>Automatic flow control asks for the next message as soon as the previous one has been
+ * handed to the application. This class instead grants the client a fixed window of messages and
+ * only tops it up once half of the window has been fully processed, so at most {@code window}
+ * messages are ever requested but not yet processed, however fast the client uploads.
+ *
+ * <p>All methods except the constructor must be called from the call's callbacks, which gRPC
+ * never runs concurrently.
+ */
+final class InboundWindow {
+  private final ServerCallStreamObserver<?> call;
+  private final int window;
+  private final int refill;
+  private final Metrics metrics;
+  private int outstanding;
+  private int processedSinceRefill;
+  private boolean finished;
+
+  /**
+   * Takes over flow control of {@code call}. Must be called before the service method returns.
+   */
+  InboundWindow(ServerCallStreamObserver<?> call, int window, Metrics metrics) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("window must be positive: " + window);
+    }
+    this.call = call;
+    this.window = window;
+    this.refill = Math.max(1, window / 2);
+    this.metrics = metrics;
+    call.disableAutoRequest();
+    metrics.activeStreams.incrementAndGet();
+    request(window);
+  }
+
+  /** Records that a message has arrived. */
+  void received() {
+    outstanding--;
+    metrics.outstanding.decrementAndGet();
+    metrics.received.incrementAndGet();
+  }
+
+  /** Records that a message has been fully processed, requesting more once enough are done. */
+  void processed() {
+    if (++processedSinceRefill >= refill && !finished) {
+      processedSinceRefill = 0;
+      request(refill);
+    }
+  }
+
+  /** Releases the window once the call has completed or failed. */
+  void finish() {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    metrics.outstanding.addAndGet(-outstanding);
+    metrics.activeStreams.decrementAndGet();
+    outstanding = 0;
+  }
+
+  private void request(int count) {
+    outstanding += count;
+    metrics.outstanding.addAndGet(count);
+    metrics.requested.addAndGet(count);
+    long total = metrics.outstanding.get();
+    long max;
+    while (total > (max = metrics.maxOutstanding.get())
+        && !metrics.maxOutstanding.compareAndSet(max, total)) {
+      // Retry until the maximum is at least total.
+    }
+    call.request(count);
+  }
+
+  /** Counters shared by all the windows of one service. */
+  static final class Metrics {
+    private final AtomicLong activeStreams = new AtomicLong();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong maxOutstanding = new AtomicLong();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+
+    /** Returns the number of streams currently under manual flow control. */
+    long activeStreams() {
+      return activeStreams.get();
+    }
+
+    /** Returns the number of messages requested but not yet received, across all streams. */
+    long outstanding() {
+      return outstanding.get();
+    }
+
+    /** Returns the highest value {@link #outstanding()} has reached. */
+    long maxOutstanding() {
+      return maxOutstanding.get();
+    }
+
+    @Override
+    public String toString() {
+      return "InboundWindow.Metrics{activeStreams=" + activeStreams.get() + ", outstanding="
+          + outstanding.get() + ", maxOutstanding=" + maxOutstanding.get() + ", requested="
+          + requested.get() + ", received=" + received.get() + "}";
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** Collects latencies from any thread and reports their percentiles. */
+final class Latencies {
+  private final ConcurrentLinkedQueue<Long> nanos = new ConcurrentLinkedQueue<>();
+
+  void add(long latencyNanos) {
+    nanos.add(latencyNanos);
+  }
+
+  @Override
+  public String toString() {
+    long[] sorted = new long[nanos.size()];
+    int i = 0;
+    for (long latency : nanos) {
+      if (i == sorted.length) {
+        break;
+      }
+      sorted[i++] = latency;
+    }
+    Arrays.sort(sorted, 0, i);
+    if (i == 0) {
+      return "n=0";
+    }
+    return String.format("n=%d p50=%.1fms p99=%.1fms p99.9=%.1fms", i,
+        percentile(sorted, i, 0.5), percentile(sorted, i, 0.99), percentile(sorted, i, 0.999));
+  }
+
+  private static double percentile(long[] sorted, int count, double p) {
+    return sorted[(int) Math.min(count - 1, (long) (p * count))] / 1e6;
+  }
+}
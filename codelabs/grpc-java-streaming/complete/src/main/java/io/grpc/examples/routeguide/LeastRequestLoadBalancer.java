@@ -0,0 +1,269 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import static io.grpc.ConnectivityState.CONNECTING;
+import static io.grpc.ConnectivityState.IDLE;
+import static io.grpc.ConnectivityState.READY;
+import static io.grpc.ConnectivityState.TRANSIENT_FAILURE;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A load balancer that sends each call to the least loaded of a few randomly chosen backends.
+ *
+ * <p>The load of a backend is the total cost of its open streams. Calls to streaming methods
+ * cost more than unary calls, so a backend busy with a few long ListFeatures scans is avoided
+ * even though it has fewer calls in flight than one answering many GetFeature lookups. Comparing
+ * a random sample of backends rather than all of them keeps picks cheap and avoids sending every
+ * client's next call to the same backend.
+ *
+ * <p>Each resolved address group gets one subchannel, which reconnects whenever it goes idle.
+ */
+final class LeastRequestLoadBalancer extends LoadBalancer {
+  /** The parsed policy configuration. */
+  static final class Config {
+    final int choiceCount;
+    final int streamingCost;
+    final Map<String, Integer> methodCosts;
+
+    Config(int choiceCount, int streamingCost, Map<String, Integer> methodCosts) {
+      this.choiceCount = choiceCount;
+      this.streamingCost = streamingCost;
+      this.methodCosts = methodCosts;
+    }
+
+    int costOf(MethodDescriptor<?, ?> method) {
+      Integer cost = methodCosts.get(method.getFullMethodName());
+      if (cost != null) {
+        return cost;
+      }
+      return method.getType() == MethodDescriptor.MethodType.UNARY ? 1 : streamingCost;
+    }
+
+    @Override
+    public String toString() {
+      return "Config{choiceCount=" + choiceCount + ", streamingCost=" + streamingCost
+          + ", methodCosts=" + methodCosts + "}";
+    }
+  }
+
+  private static final Config DEFAULT_CONFIG = new Config(
+      LeastRequestLoadBalancerProvider.DEFAULT_CHOICE_COUNT,
+      LeastRequestLoadBalancerProvider.DEFAULT_STREAMING_COST,
+      Collections.<String, Integer>emptyMap());
+
+  private final Helper helper;
+  // Keyed by the addresses without their attributes.
+  private final Map<EquivalentAddressGroup, Backend> backends = new HashMap<>();
+  private Config config = DEFAULT_CONFIG;
+  private Status lastError = Status.UNAVAILABLE.withDescription("No backend connected yet");
+
+  LeastRequestLoadBalancer(Helper helper) {
+    this.helper = helper;
+  }
+
+  @Override
+  public Status acceptResolvedAddresses(ResolvedAddresses resolvedAddresses) {
+    List<EquivalentAddressGroup> groups = resolvedAddresses.getAddresses();
+    if (groups.isEmpty()) {
+      Status status = Status.UNAVAILABLE.withDescription(
+          "Name resolver returned no addresses: " + resolvedAddresses);
+      handleNameResolutionError(status);
+      return status;
+    }
+    Object parsedConfig = resolvedAddresses.getLoadBalancingPolicyConfig();
+    config = parsedConfig != null ? (Config) parsedConfig : DEFAULT_CONFIG;
+
+    Map<EquivalentAddressGroup, EquivalentAddressGroup> wanted = new HashMap<>();
+    for (EquivalentAddressGroup group : groups) {
+      wanted.put(new EquivalentAddressGroup(group.getAddresses()), group);
+    }
+    for (Iterator<Map.Entry<EquivalentAddressGroup, Backend>> it =
+        backends.entrySet().iterator(); it.hasNext(); ) {
+      Map.Entry<EquivalentAddressGroup, Backend> entry = it.next();
+      if (!wanted.containsKey(entry.getKey())) {
+        entry.getValue().removed = true;
+        entry.getValue().subchannel.shutdown();
+        it.remove();
+      }
+    }
+    for (Map.Entry<EquivalentAddressGroup, EquivalentAddressGroup> entry : wanted.entrySet()) {
+      Backend backend = backends.get(entry.getKey());
+      if (backend != null) {
+        backend.subchannel.updateAddresses(Collections.singletonList(entry.getValue()));
+        continue;
+      }
+      final Subchannel subchannel = helper.createSubchannel(CreateSubchannelArgs.newBuilder()
+          .setAddresses(entry.getValue())
+          .build());
+      final Backend created = new Backend(subchannel);
+      backends.put(entry.getKey(), created);
+      subchannel.start(new SubchannelStateListener() {
+        @Override
+        public void onSubchannelState(ConnectivityStateInfo state) {
+          updateState(created, state);
+        }
+      });
+      subchannel.requestConnection();
+    }
+    updatePicker();
+    return Status.OK;
+  }
+
+  @Override
+  public void handleNameResolutionError(Status error) {
+    lastError = error;
+    if (readyBackends().isEmpty()) {
+      helper.updateBalancingState(TRANSIENT_FAILURE,
+          new FixedResultPicker(PickResult.withError(error)));
+    }
+  }
+
+  private void updateState(Backend backend, ConnectivityStateInfo state) {
+    if (backend.removed) {
+      return;
+    }
+    backend.state = state.getState();
+    if (state.getState() == TRANSIENT_FAILURE) {
+      lastError = state.getStatus();
+    }
+    if (state.getState() == IDLE) {
+      backend.subchannel.requestConnection();
+    }
+    updatePicker();
+  }
+
+  private List<Backend> readyBackends() {
+    List<Backend> ready = new ArrayList<>();
+    for (Backend backend : backends.values()) {
+      if (backend.state == READY) {
+        ready.add(backend);
+      }
+    }
+    return ready;
+  }
+
+  private void updatePicker() {
+    List<Backend> ready = readyBackends();
+    if (!ready.isEmpty()) {
+      helper.updateBalancingState(READY, new Picker(ready, config));
+      return;
+    }
+    for (Backend backend : backends.values()) {
+      if (backend.state == CONNECTING || backend.state == IDLE) {
+        helper.updateBalancingState(CONNECTING, new FixedResultPicker(PickResult.withNoResult()));
+        return;
+      }
+    }
+    helper.updateBalancingState(TRANSIENT_FAILURE,
+        new FixedResultPicker(PickResult.withError(lastError)));
+  }
+
+  @Override
+  public void shutdown() {
+    for (Backend backend : backends.values()) {
+      backend.subchannel.shutdown();
+    }
+    backends.clear();
+  }
+
+  /** A subchannel and the cost of its open streams. */
+  private static final class Backend {
+    final Subchannel subchannel;
+    final AtomicLong outstandingCost = new AtomicLong();
+    ConnectivityState state = IDLE;
+    // Whether a newer resolution result dropped the backend.
+    boolean removed;
+
+    Backend(Subchannel subchannel) {
+      this.subchannel = subchannel;
+    }
+  }
+
+  /** Picks the least loaded of {@code choiceCount} random ready backends. */
+  private static final class Picker extends SubchannelPicker {
+    private final Backend[] ready;
+    private final Config config;
+
+    Picker(List<Backend> ready, Config config) {
+      this.ready = ready.toArray(new Backend[0]);
+      this.config = config;
+    }
+
+    @Override
+    public PickResult pickSubchannel(PickSubchannelArgs args) {
+      Backend best = null;
+      long bestCost = Long.MAX_VALUE;
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int choices = Math.min(config.choiceCount, ready.length);
+      // With as many choices as backends, compare them all, starting at a random one so that
+      // ties, such as all backends being idle, are spread over them; otherwise sample with
+      // repetition.
+      int offset = random.nextInt(ready.length);
+      for (int i = 0; i < choices; i++) {
+        Backend candidate = choices == ready.length
+            ? ready[(offset + i) % ready.length] : ready[random.nextInt(ready.length)];
+        long cost = candidate.outstandingCost.get();
+        if (cost < bestCost) {
+          best = candidate;
+          bestCost = cost;
+        }
+      }
+      return PickResult.withSubchannel(best.subchannel,
+          new CostTracerFactory(best, config.costOf(args.getMethodDescriptor())));
+    }
+  }
+
+  /** Charges a call's cost to its backend while its stream is open. */
+  private static final class CostTracerFactory extends ClientStreamTracer.Factory {
+    private final Backend backend;
+    private final int cost;
+
+    CostTracerFactory(Backend backend, int cost) {
+      this.backend = backend;
+      this.cost = cost;
+    }
+
+    @Override
+    public ClientStreamTracer newClientStreamTracer(
+        ClientStreamTracer.StreamInfo info, Metadata headers) {
+      backend.outstandingCost.addAndGet(cost);
+      return new ClientStreamTracer() {
+        @Override
+        public void streamClosed(Status status) {
+          backend.outstandingCost.addAndGet(-cost);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.NameResolver.ConfigOrError;
+import io.grpc.Status;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides the {@value #POLICY_NAME} load balancing policy, see {@link LeastRequestLoadBalancer}.
+ *
+ * <p>Its configuration may set the cost of a call by RPC type, and override it for individual
+ * methods:
+ *
+ * <pre>
+ * {"routeguide_least_request": {
+ *   "choiceCount": 2,
+ *   "streamingCost": 4,
+ *   "methodCosts": {"routeguide.RouteGuide/ListFeatures": 16}
+ * }}
+ * </pre>
+ *
+ * <p>Unary calls cost 1 unless overridden. The provider is registered through
+ * {@code META-INF/services}, so channels can select the policy by name.
+ */
+public final class LeastRequestLoadBalancerProvider extends LoadBalancerProvider {
+  public static final String POLICY_NAME = "routeguide_least_request";
+
+  static final int DEFAULT_CHOICE_COUNT = 2;
+  static final int DEFAULT_STREAMING_COST = 4;
+
+  @Override
+  public boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  public int getPriority() {
+    return 5;
+  }
+
+  @Override
+  public String getPolicyName() {
+    return POLICY_NAME;
+  }
+
+  @Override
+  public LoadBalancer newLoadBalancer(LoadBalancer.Helper helper) {
+    return new LeastRequestLoadBalancer(helper);
+  }
+
+  @Override
+  public ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+    try {
+      int choiceCount = getInt(rawConfig, "choiceCount", DEFAULT_CHOICE_COUNT);
+      int streamingCost = getInt(rawConfig, "streamingCost", DEFAULT_STREAMING_COST);
+      Map<String, Integer> methodCosts = new HashMap<>();
+      Object rawCosts = rawConfig.get("methodCosts");
+      if (rawCosts != null) {
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) rawCosts).entrySet()) {
+          methodCosts.put((String) entry.getKey(), toCost(entry.getValue()));
+        }
+      }
+      if (choiceCount < 2) {
+        throw new IllegalArgumentException("choiceCount must be at least 2: " + choiceCount);
+      }
+      return ConfigOrError.fromConfig(new LeastRequestLoadBalancer.Config(
+          choiceCount, toCost(streamingCost), Collections.unmodifiableMap(methodCosts)));
+    } catch (RuntimeException e) {
+      return ConfigOrError.fromError(Status.INTERNAL.withCause(e)
+          .withDescription("Invalid " + POLICY_NAME + " config: " + rawConfig));
+    }
+  }
+
+  private static int getInt(Map<String, ?> config, String name, int defaultValue) {
+    Object value = config.get(name);
+    // JSON numbers are parsed as doubles.
+    return value == null ? defaultValue : ((Number) value).intValue();
+  }
+
+  private static int toCost(Object value) {
+    int cost = ((Number) value).intValue();
+    if (cost <= 0) {
+      throw new IllegalArgumentException("costs must be positive: " + value);
+    }
+    return cost;
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of {@code ListFeatures} results.
+ *
+ * <p>Rectangles are snapped outwards to a fixed grid before lookup, so that nearby viewports of
+ * the same tile share one entry. Each entry holds the indices of the features inside the snapped
+ * rectangle; callers re-check those candidates against the exact request bounds, which is cheap
+ * compared to filtering the whole database.
+ *
+ * <p>Entries are evicted in least-recently-used order once the total number of cached indices
+ * exceeds the configured weight. The server never changes its feature set, so nothing invalidates
+ * entries wholesale; entries computed against a different {@link FeatureStore} are still treated
+ * as stale, so that a cache can never hand out indices into the wrong store.
+ */
+final class ListFeaturesCache {
+  /** Default grid size in E7 units, i.e. 0.01 degrees (roughly one kilometre). */
+  static final int DEFAULT_GRID_SIZE = 100_000;
+  /** Default upper bound on the total number of cached feature indices. */
+  static final long DEFAULT_MAX_WEIGHT = 4L * 1024 * 1024;
+  /** Fixed per-entry cost, so that many tiny entries still count against the bound. */
+  private static final int ENTRY_OVERHEAD = 16;
+
+  private final int gridSize;
+  private final long maxWeight;
+  // Guarded by this. Access-ordered, so iteration starts at the least recently used entry.
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  ListFeaturesCache() {
+    this(DEFAULT_GRID_SIZE, DEFAULT_MAX_WEIGHT);
+  }
+
+  ListFeaturesCache(int gridSize, long maxWeight) {
+    if (gridSize <= 0) {
+      throw new IllegalArgumentException("gridSize must be positive: " + gridSize);
+    }
+    this.gridSize = gridSize;
+    this.maxWeight = maxWeight;
+  }
+
+  /** Snaps the given bounds outwards to this cache's grid. */
+  Key snap(long left, long right, long bottom, long top) {
+    return new Key(
+        Math.floorDiv(left, gridSize) * gridSize,
+        -Math.floorDiv(-right, gridSize) * gridSize,
+        Math.floorDiv(bottom, gridSize) * gridSize,
+        -Math.floorDiv(-top, gridSize) * gridSize);
+  }
+
+  /**
+   * Returns the cached candidate indices for {@code key}, or {@code null} if there is no entry
+   * computed against {@code store}.
+   */
+  int[] get(FeatureStore store, Key key) {
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.store == store) {
+        hits.incrementAndGet();
+        return entry.indices;
+      }
+      if (entry != null) {
+        remove(key, entry);
+        invalidations.incrementAndGet();
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /** Caches the candidate indices for {@code key}, evicting older entries if necessary. */
+  void put(FeatureStore store, Key key, int[] indices) {
+    long entryWeight = (long) indices.length + ENTRY_OVERHEAD;
+    if (entryWeight > maxWeight) {
+      return;
+    }
+    synchronized (this) {
+      Entry previous = entries.put(key, new Entry(store, indices));
+      if (previous != null) {
+        weight -= (long) previous.indices.length + ENTRY_OVERHEAD;
+      }
+      weight += entryWeight;
+      Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+      while (weight > maxWeight && it.hasNext()) {
+        Map.Entry<Key, Entry> eldest = it.next();
+        it.remove();
+        weight -= (long) eldest.getValue().indices.length + ENTRY_OVERHEAD;
+        evictions.incrementAndGet();
+      }
+    }
+  }
+
+  private void remove(Key key, Entry entry) {
+    entries.remove(key);
+    weight -= (long) entry.indices.length + ENTRY_OVERHEAD;
+  }
+
+  long hitCount() {
+    return hits.get();
+  }
+
+  long missCount() {
+    return misses.get();
+  }
+
+  long evictionCount() {
+    return evictions.get();
+  }
+
+  long invalidationCount() {
+    return invalidations.get();
+  }
+
+  /** Returns the fraction of lookups served from the cache, or 0 if there were none. */
+  double hitRate() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    int size;
+    long currentWeight;
+    synchronized (this) {
+      size = entries.size();
+      currentWeight = weight;
+    }
+    return String.format(
+        "ListFeaturesCache{entries=%d, weight=%d/%d, hits=%d, misses=%d, hitRate=%.3f, "
+            + "evictions=%d, invalidations=%d}",
+        size, currentWeight, maxWeight, hits.get(), misses.get(), hitRate(), evictions.get(),
+        invalidations.get());
+  }
+
+  /** A rectangle snapped to the cache grid. */
+  static final class Key {
+    final long left;
+    final long right;
+    final long bottom;
+    final long top;
+
+    Key(long left, long right, long bottom, long top) {
+      this.left = left;
+      this.right = right;
+      this.bottom = bottom;
+      this.top = top;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return left == that.left && right == that.right && bottom == that.bottom && top == that.top;
+    }
+
+    @Override
+    public int hashCode() {
+      long h = left;
+      h = 31 * h + right;
+      h = 31 * h + bottom;
+      h = 31 * h + top;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+
+  private static final class Entry {
+    final FeatureStore store;
+    final int[] indices;
+
+    Entry(FeatureStore store, int[] indices) {
+      this.store = store;
+      this.indices = indices;
+    }
+  }
+}
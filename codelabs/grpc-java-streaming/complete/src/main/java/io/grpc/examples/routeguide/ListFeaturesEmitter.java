@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams the result of a {@code ListFeatures} scan to a single caller.
+ *
+ * <p>The candidate indices may be shared with other callers; each emitter only checks them
+ * against its own exact bounds. Features are sent only while the caller's stream is ready, and
+ * emission resumes from the {@code onReady} callback, so a slow reader never makes the server
+ * buffer more than the transport's flow-control window.
+ *
+ * <p>Candidates may arrive in several chunks, e.g. one per partition of a parallel scan, and are
+ * sent in the order the chunks were appended.
+ *
+ * <p>If given a {@link RouteGuideEvents.ListFeatures} event, the emitter counts the candidates it
+ * checks and the features it sends into it, and commits it once the call is done.
+ */
+final class ListFeaturesEmitter implements Runnable, FeatureScanner.PartitionListener {
+  private final FeatureStore store;
+  private final ServerCallStreamObserver<Feature> responseObserver;
+  private final long left;
+  private final long right;
+  private final long bottom;
+  private final long top;
+  private final AtomicLong unsentCandidates;
+  private final RouteGuideEvents.ListFeatures event;
+
+  // Guarded by this. Sent chunks are replaced by null.
+  private final List<int[]> chunks = new ArrayList<>();
+  // Guarded by this. The chunk being sent.
+  private int chunk;
+  // Guarded by this. The next candidate of the chunk being sent.
+  private int next;
+  // Guarded by this. Whether all chunks have been appended.
+  private boolean complete;
+  // Guarded by this.
+  private boolean done;
+  // Guarded by this.
+  private int candidatesChecked;
+  // Guarded by this.
+  private int returned;
+
+  ListFeaturesEmitter(FeatureStore store, ServerCallStreamObserver<Feature> responseObserver,
+      long left, long right, long bottom, long top, AtomicLong unsentCandidates) {
+    this(store, responseObserver, left, right, bottom, top, unsentCandidates, null);
+  }
+
+  /**
+   * Creates an emitter that also records the call in {@code event}, which the caller must already
+   * have begun.
+   */
+  ListFeaturesEmitter(FeatureStore store, ServerCallStreamObserver<Feature> responseObserver,
+      long left, long right, long bottom, long top, AtomicLong unsentCandidates,
+      RouteGuideEvents.ListFeatures event) {
+    this.store = store;
+    this.responseObserver = responseObserver;
+    this.left = left;
+    this.right = right;
+    this.bottom = bottom;
+    this.top = top;
+    this.unsentCandidates = unsentCandidates;
+    this.event = event;
+  }
+
+  /** Streams {@code candidates} and completes the call. */
+  synchronized void start(int[] candidates) {
+    onPartition(candidates);
+    complete();
+  }
+
+  /** Queues more candidates for streaming. */
+  @Override
+  public synchronized void onPartition(int[] candidates) {
+    if (done) {
+      return;
+    }
+    chunks.add(candidates);
+    drain();
+  }
+
+  /** Completes the call once all queued candidates have been sent. */
+  synchronized void complete() {
+    complete = true;
+    drain();
+  }
+
+  /** Fails the call, unless it has already finished. */
+  synchronized void fail(Throwable t) {
+    if (done) {
+      return;
+    }
+    finish(true);
+    responseObserver.onError(Status.fromThrowable(t).asRuntimeException());
+  }
+
+  /**
+   * Stops emitting after the caller has cancelled, adding the candidates that no longer need to
+   * be checked to the {@code unsentCandidates} counter.
+   */
+  synchronized void cancel() {
+    if (!done) {
+      long unsent = -next;
+      for (int i = chunk; i < chunks.size(); i++) {
+        unsent += chunks.get(i).length;
+      }
+      unsentCandidates.addAndGet(unsent);
+      finish(true);
+    }
+  }
+
+  /** Called when the caller's stream becomes ready for more messages. */
+  @Override
+  public void run() {
+    drain();
+  }
+
+  private synchronized void drain() {
+    if (done) {
+      return;
+    }
+    while (chunk < chunks.size()) {
+      int[] candidates = chunks.get(chunk);
+      while (next < candidates.length) {
+        if (!responseObserver.isReady()) {
+          // Resumed by the next onReady callback.
+          return;
+        }
+        int index = candidates[next++];
+        candidatesChecked++;
+        if (store.contains(index, left, right, bottom, top)) {
+          returned++;
+          responseObserver.onNext(store.get(index));
+        }
+      }
+      chunks.set(chunk++, null);
+      next = 0;
+    }
+    if (complete) {
+      finish(false);
+      responseObserver.onCompleted();
+    }
+  }
+
+  private void finish(boolean cancelled) {
+    done = true;
+    if (event != null) {
+      event.candidates = candidatesChecked;
+      event.returned = returned;
+      event.cancelled = cancelled;
+      event.commit();
+    }
+  }
+}
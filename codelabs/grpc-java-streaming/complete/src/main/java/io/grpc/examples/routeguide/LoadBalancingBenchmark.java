@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares client load balancing policies against several RouteGuide replicas on localhost.
+ *
+ * <p>Each replica serves the same synthetic feature database on a small fixed thread pool, like
+ * a replica with few cores. The client sends GetFeature calls mixed with ListFeatures scans
+ * of large rectangles at a fixed rate, so a replica busy with scans delays the lookups queued
+ * behind them. Each policy is tested in turn on a fresh channel to a
+ * {@link StaticNameResolverProvider} target, and the latency percentiles of both methods are
+ * printed.
+ *
+ * <p>Run with {@code ./gradlew loadBalancingBenchmark}.
+ */
+public final class LoadBalancingBenchmark {
+  private static final int THREADS_PER_REPLICA = 2;
+  private static final int GET_FEATURE_PER_SECOND = 400;
+  private static final int LIST_FEATURES_PER_SECOND = 10;
+  private static final int SPAN = 100_000_000;
+  private static final int SCAN_SPAN = SPAN / 10;
+  private static final String[] POLICIES =
+      {"pick_first", "round_robin", LeastRequestLoadBalancerProvider.POLICY_NAME};
+
+  private final Random random = new Random(1);
+
+  /** Usage: {@code REPLICAS FEATURES SECONDS}. */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 3) {
+      System.err.println("Usage: REPLICAS FEATURES SECONDS");
+      System.exit(1);
+    }
+    int replicas = Integer.parseInt(args[0]);
+    int featureCount = Integer.parseInt(args[1]);
+    int seconds = Integer.parseInt(args[2]);
+    new LoadBalancingBenchmark().run(replicas, featureCount, seconds);
+  }
+
+  private void run(int replicas, int featureCount, int seconds) throws Exception {
+    List<Feature> features = new ArrayList<>(featureCount);
+    for (int i = 0; i < featureCount; i++) {
+      features.add(Feature.newBuilder().setName("Feature " + i)
+          .setLocation(Point.newBuilder()
+              .setLatitude(400_000_000 + random.nextInt(SPAN))
+              .setLongitude(-750_000_000 + random.nextInt(SPAN)))
+          .build());
+    }
+    FeatureStore store = new FeatureStore(features);
+    List<RouteGuideServer> servers = new ArrayList<>();
+    List<ExecutorService> executors = new ArrayList<>();
+    StringBuilder target = new StringBuilder(StaticNameResolverProvider.SCHEME + ":///");
+    try {
+      for (int i = 0; i < replicas; i++) {
+        int port = freePort();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_PER_REPLICA);
+        executors.add(executor);
+        RouteGuideServer server = new RouteGuideServer(
+            Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .executor(executor),
+            port, store, new RouteGuideOptions());
+        server.start();
+        servers.add(server);
+        target.append(i == 0 ? "" : ",").append("localhost:").append(port);
+      }
+      for (String policy : POLICIES) {
+        ManagedChannelBuilder<?> builder =
+            Grpc.newChannelBuilder(target.toString(), InsecureChannelCredentials.create());
+        if (!policy.equals(LeastRequestLoadBalancerProvider.POLICY_NAME)) {
+          // Otherwise the resolver's service config selects the least request policy.
+          builder.defaultLoadBalancingPolicy(policy).disableServiceConfigLookUp();
+        }
+        ManagedChannel channel = builder.build();
+        try {
+          // Warm up, then measure.
+          drive(channel, Math.max(1, seconds / 5));
+          Results results = drive(channel, seconds);
+          System.out.printf("%-24s GetFeature %s | ListFeatures %s%n", policy,
+              results.getFeature(), results.listFeatures());
+        } finally {
+          channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+      }
+    } finally {
+      for (RouteGuideServer server : servers) {
+        server.stop();
+      }
+      for (ExecutorService executor : executors) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /** Sends the mixed workload at a fixed rate for {@code seconds} and waits for every call. */
+  private Results drive(ManagedChannel channel, int seconds) throws InterruptedException {
+    RouteGuideGrpc.RouteGuideStub stub = RouteGuideGrpc.newStub(channel);
+    final Results results = new Results();
+    final Phaser outstanding = new Phaser(1);
+    int perSecond = GET_FEATURE_PER_SECOND + LIST_FEATURES_PER_SECOND;
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / perSecond;
+    long start = System.nanoTime();
+    for (long n = 0; n < (long) perSecond * seconds; n++) {
+      // Calls are sent on schedule even if earlier ones are late, so that queueing shows up
+      // in the latencies instead of slowing down the client.
+      long due = start + n * intervalNanos;
+      long wait = due - System.nanoTime();
+      if (wait > 0) {
+        TimeUnit.NANOSECONDS.sleep(wait);
+      }
+      outstanding.register();
+      if (random.nextInt(perSecond) < LIST_FEATURES_PER_SECOND) {
+        int lat = 400_000_000 + random.nextInt(SPAN - SCAN_SPAN);
+        int lon = -750_000_000 + random.nextInt(SPAN - SCAN_SPAN);
+        stub.listFeatures(Rectangle.newBuilder()
+                .setLo(Point.newBuilder().setLatitude(lat).setLongitude(lon))
+                .setHi(Point.newBuilder().setLatitude(lat + SCAN_SPAN)
+                    .setLongitude(lon + SCAN_SPAN))
+                .build(),
+            new Recorder<Feature>(due, results.listFeatures, results.failures, outstanding));
+      } else {
+        stub.getFeature(Point.newBuilder()
+                .setLatitude(400_000_000 + random.nextInt(SPAN))
+                .setLongitude(-750_000_000 + random.nextInt(SPAN))
+                .build(),
+            new Recorder<Feature>(due, results.getFeature, results.failures, outstanding));
+      }
+    }
+    outstanding.arriveAndAwaitAdvance();
+    return results;
+  }
+
+  /** Records the time from when a call was due until it completed. */
+  private static final class Recorder<T> implements StreamObserver<T> {
+    private final long due;
+    private final Latencies latencies;
+    private final AtomicLong failures;
+    private final Phaser outstanding;
+
+    Recorder(long due, Latencies latencies, AtomicLong failures, Phaser outstanding) {
+      this.due = due;
+      this.latencies = latencies;
+      this.failures = failures;
+      this.outstanding = outstanding;
+    }
+
+    @Override
+    public void onNext(T value) {}
+
+    @Override
+    public void onError(Throwable t) {
+      failures.incrementAndGet();
+      outstanding.arriveAndDeregister();
+    }
+
+    @Override
+    public void onCompleted() {
+      latencies.add(System.nanoTime() - due);
+      outstanding.arriveAndDeregister();
+    }
+  }
+
+  private static final class Results {
+    final Latencies getFeature = new Latencies();
+    final Latencies listFeatures = new Latencies();
+    final AtomicLong failures = new AtomicLong();
+
+    String getFeature() {
+      return getFeature.toString();
+    }
+
+    String listFeatures() {
+      return listFeatures + (failures.get() > 0 ? " failures=" + failures : "");
+    }
+  }
+}
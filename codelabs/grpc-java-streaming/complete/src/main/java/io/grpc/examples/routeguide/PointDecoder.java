@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes serialized {@link Point} messages straight into primitive fields.
+ *
+ * <p>An instance is meant to be reused for every message of a stream: {@link #decode} overwrites
+ * {@link #latitude()} and {@link #longitude()} in place, so decoding allocates nothing. Combined
+ * with {@link #MARSHALLER}, which hands the transport's message stream to the application
+ * unparsed, no per-message objects are created besides those of the transport itself.
+ */
+final class PointDecoder {
+  /** A marshaller that passes serialized messages through untouched. */
+  static final MethodDescriptor.Marshaller<InputStream> MARSHALLER =
+      new MethodDescriptor.Marshaller<InputStream>() {
+        @Override
+        public InputStream stream(InputStream value) {
+          return value;
+        }
+
+        @Override
+        public InputStream parse(InputStream stream) {
+          return stream;
+        }
+      };
+
+  private static final int WIRETYPE_VARINT = 0;
+  private static final int WIRETYPE_FIXED64 = 1;
+  private static final int WIRETYPE_LENGTH_DELIMITED = 2;
+  private static final int WIRETYPE_FIXED32 = 5;
+
+  private int latitude;
+  private int longitude;
+
+  int latitude() {
+    return latitude;
+  }
+
+  int longitude() {
+    return longitude;
+  }
+
+  /**
+   * Reads one serialized {@link Point} until the end of {@code message}. Fields that are absent
+   * decode as zero, and unknown fields are skipped.
+   *
+   * @throws io.grpc.StatusRuntimeException if the message is not a valid {@code Point}
+   */
+  void decode(InputStream message) {
+    latitude = 0;
+    longitude = 0;
+    try {
+      int tag;
+      while ((tag = readTag(message)) != 0) {
+        int field = tag >>> 3;
+        int wireType = tag & 7;
+        if (field == 1 && wireType == WIRETYPE_VARINT) {
+          latitude = (int) readVarint(message);
+        } else if (field == 2 && wireType == WIRETYPE_VARINT) {
+          longitude = (int) readVarint(message);
+        } else {
+          skipField(message, wireType);
+        }
+      }
+    } catch (IOException e) {
+      throw invalid(e);
+    }
+  }
+
+  /** Returns the next tag, or 0 at the end of the message. */
+  private static int readTag(InputStream in) throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return 0;
+    }
+    if ((first & 0x80) == 0) {
+      return first;
+    }
+    long rest = readVarint(in);
+    return (int) ((first & 0x7f) | (rest << 7));
+  }
+
+  private static long readVarint(InputStream in) throws IOException {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw invalid(null);
+      }
+      result |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw invalid(null);
+  }
+
+  private static void skipField(InputStream in, int wireType) throws IOException {
+    switch (wireType) {
+      case WIRETYPE_VARINT:
+        readVarint(in);
+        break;
+      case WIRETYPE_FIXED64:
+        skipBytes(in, 8);
+        break;
+      case WIRETYPE_LENGTH_DELIMITED:
+        skipBytes(in, readVarint(in));
+        break;
+      case WIRETYPE_FIXED32:
+        skipBytes(in, 4);
+        break;
+      default:
+        // Groups are not used by proto3 messages.
+        throw invalid(null);
+    }
+  }
+
+  private static void skipBytes(InputStream in, long count) throws IOException {
+    while (count > 0) {
+      if (in.read() < 0) {
+        throw invalid(null);
+      }
+      count--;
+    }
+  }
+
+  private static RuntimeException invalid(Throwable cause) {
+    return Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(cause)
+        .asRuntimeException();
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The running statistics of one {@code RecordRoute} stream.
+ *
+ * <p>Points are added as primitive coordinates and only the previous point is remembered, so
+ * adding a point allocates nothing.
+ *
+ * <p>By default a point only passes a feature if it has exactly the feature's coordinates. With
+ * a match radius, a point passes every feature within that many metres, found through the
+ * store's {@link SpatialIndex}, and each feature is counted once per route however many points
+ * pass it.
+ *
+ * <p>With a simplification tolerance, the points are also passed through a {@link RouteSimplifier}
+ * and the distance is that of the simplified route, which ignores jitter within the tolerance.
+ * Features are still matched against every point.
+ */
+final class RouteAccumulator implements IntConsumer {
+  private final FeatureStore store;
+  private final int matchRadius;
+  // The match radius in E7 degrees of latitude.
+  private final long matchLatitudeSpan;
+  private final long startTime = System.nanoTime();
+  private final RouteSimplifier simplifier;
+  // The simplified route, if it is to be returned.
+  private int[] simplifiedRoute;
+  private int simplifiedSize;
+  // Open-addressing set of the indices plus one of the features counted so far, when matching
+  // within a radius.
+  private int[] counted;
+  private int countedSize;
+  private int pointCount;
+  private int featureCount;
+  private int distance;
+  private boolean hasPrevious;
+  private int previousLatitude;
+  private int previousLongitude;
+  private int currentLatitude;
+  private int currentLongitude;
+
+  RouteAccumulator(FeatureStore store) {
+    this(store, 0);
+  }
+
+  /**
+   * Creates an accumulator that counts the features within {@code matchRadius} metres of the
+   * route, or only those exactly on it if {@code matchRadius} is zero.
+   */
+  RouteAccumulator(FeatureStore store, int matchRadius) {
+    this(store, matchRadius, 0, 0, false);
+  }
+
+  /**
+   * Creates an accumulator that additionally simplifies the route to within
+   * {@code simplifyTolerance} metres, looking at most {@code simplifyWindow} points ahead. A
+   * tolerance of zero disables simplification.
+   *
+   * @param returnSimplifiedRoute whether {@link #summary} includes the simplified route
+   */
+  RouteAccumulator(FeatureStore store, int matchRadius, int simplifyTolerance,
+      int simplifyWindow, boolean returnSimplifiedRoute) {
+    this.store = store;
+    this.matchRadius = matchRadius;
+    this.matchLatitudeSpan = SpatialIndex.latitudeSpan(matchRadius);
+    this.simplifier = simplifyTolerance > 0
+        ? new RouteSimplifier(simplifyTolerance, simplifyWindow, this::addSimplified)
+        : null;
+    this.simplifiedRoute = simplifier != null && returnSimplifiedRoute ? new int[32] : null;
+  }
+
+  /** Adds the next point of the route. */
+  void add(int latitude, int longitude) {
+    pointCount++;
+    if (matchRadius > 0) {
+      countFeaturesNear(latitude, longitude);
+    } else {
+      int index = store.indexOf(latitude, longitude);
+      if (index >= 0 && RouteGuideUtil.exists(store.get(index))) {
+        featureCount++;
+      }
+    }
+    if (simplifier != null) {
+      simplifier.add(latitude, longitude);
+    } else {
+      addToDistance(latitude, longitude);
+    }
+  }
+
+  private void addSimplified(int latitude, int longitude) {
+    if (simplifiedRoute != null) {
+      if (simplifiedSize == simplifiedRoute.length) {
+        simplifiedRoute = Arrays.copyOf(simplifiedRoute, simplifiedSize * 2);
+      }
+      simplifiedRoute[simplifiedSize++] = latitude;
+      simplifiedRoute[simplifiedSize++] = longitude;
+    }
+    addToDistance(latitude, longitude);
+  }
+
+  private void addToDistance(int latitude, int longitude) {
+    // For each point after the first, add the incremental distance from the previous point to
+    // the total distance value.
+    if (hasPrevious) {
+      distance += RouteGuideUtil.calcDistance(
+          previousLatitude, previousLongitude, latitude, longitude);
+    }
+    hasPrevious = true;
+    previousLatitude = latitude;
+    previousLongitude = longitude;
+  }
+
+  private void countFeaturesNear(int latitude, int longitude) {
+    long bottom = latitude - matchLatitudeSpan;
+    long top = latitude + matchLatitudeSpan;
+    long longitudeSpan = SpatialIndex.longitudeSpan(
+        matchLatitudeSpan, Math.max(Math.abs(bottom), Math.abs(top)));
+    // Read by accept(), which the index calls for each candidate.
+    currentLatitude = latitude;
+    currentLongitude = longitude;
+    store.spatialIndex().query(
+        longitude - longitudeSpan, longitude + longitudeSpan, bottom, top, this);
+  }
+
+  /** Counts one candidate near the current point, if it is close enough and not yet counted. */
+  @Override
+  public void accept(int index) {
+    if (RouteGuideUtil.calcDistance(currentLatitude, currentLongitude,
+            store.latitude(index), store.longitude(index)) <= matchRadius
+        && RouteGuideUtil.exists(store.get(index)) && addCounted(index)) {
+      featureCount++;
+    }
+  }
+
+  /** Adds {@code index} to the counted features, returning whether it was new. */
+  private boolean addCounted(int index) {
+    if (counted == null) {
+      counted = new int[16];
+    } else if (countedSize * 2 >= counted.length) {
+      int[] old = counted;
+      counted = new int[old.length * 2];
+      for (int entry : old) {
+        if (entry != 0) {
+          counted[slot(entry - 1)] = entry;
+        }
+      }
+    }
+    int slot = slot(index);
+    if (counted[slot] != 0) {
+      return false;
+    }
+    counted[slot] = index + 1;
+    countedSize++;
+    return true;
+  }
+
+  /** Returns the slot holding {@code index}, or the empty slot where it would go. */
+  private int slot(int index) {
+    int mask = counted.length - 1;
+    int hash = index * 0x9e3779b9;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    while (counted[slot] != 0 && counted[slot] != index + 1) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /** Returns the number of points added so far. */
+  int pointCount() {
+    return pointCount;
+  }
+
+  /** Returns the statistics of the route so far. */
+  RouteSummary summary() {
+    long seconds = NANOSECONDS.toSeconds(System.nanoTime() - startTime);
+    if (simplifier != null) {
+      simplifier.flush();
+    }
+    RouteSummary.Builder summary = RouteSummary.newBuilder().setPointCount(pointCount)
+        .setFeatureCount(featureCount).setDistance(distance)
+        .setElapsedTime((int) seconds);
+    if (simplifier != null) {
+      summary.setSimplifiedPointCount(simplifier.outputCount());
+    }
+    if (simplifiedRoute != null) {
+      for (int i = 0; i < simplifiedSize; i += 2) {
+        summary.addSimplifiedRoute(Point.newBuilder()
+            .setLatitude(simplifiedRoute[i]).setLongitude(simplifiedRoute[i + 1]));
+      }
+    }
+    return summary.build();
+  }
+}
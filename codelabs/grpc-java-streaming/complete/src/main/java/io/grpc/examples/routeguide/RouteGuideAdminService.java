@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Serves {@code RouteGuideAdmin} (see route_guide_admin.proto), which lets operators look into a
+ * running RouteGuide server.
+ */
+final class RouteGuideAdminService extends RouteGuideAdminGrpc.RouteGuideAdminImplBase {
+  // Null if the server does not record slow calls.
+  private final SlowCallRecorder slowCalls;
+
+  RouteGuideAdminService(SlowCallRecorder slowCalls) {
+    this.slowCalls = slowCalls;
+  }
+
+  @Override
+  public void getSlowCalls(GetSlowCallsRequest request,
+      StreamObserver<SlowCalls> responseObserver) {
+    if (slowCalls == null) {
+      responseObserver.onError(Status.FAILED_PRECONDITION
+          .withDescription("The server does not record slow calls")
+          .asRuntimeException());
+      return;
+    }
+    responseObserver.onNext(slowCalls.snapshot(request.getAfterSequence(), request.getLimit()));
+    responseObserver.onCompleted();
+  }
+}
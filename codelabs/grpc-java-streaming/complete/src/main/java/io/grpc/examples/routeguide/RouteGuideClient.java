@@ -19,17 +19,23 @@ package io.grpc.examples.routeguide;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.protobuf.Message;
 import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
 import io.grpc.Grpc;
 import io.grpc.InsecureChannelCredentials;
 import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.examples.routeguide.RouteGuideGrpc.RouteGuideBlockingStub;
 import io.grpc.examples.routeguide.RouteGuideGrpc.RouteGuideStub;
+import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +48,12 @@ import java.util.logging.Logger;
 public class RouteGuideClient {
   private static final Logger logger = Logger.getLogger(RouteGuideClient.class.getName());
 
+  private static final String IN_PROCESS_SCHEME = "in-process:";
+  private static final String DEFAULT_TARGET = "localhost:8980";
+  private static final int DEFAULT_CHANNELS = 1;
+  private static final int DEFAULT_HEDGING_MAX_ATTEMPTS = 0;
+  private static final long DEFAULT_HEDGING_DELAY_MILLIS = 20;
+
   private final RouteGuideBlockingStub blockingStub;
   private final RouteGuideStub asyncStub;
 
@@ -104,6 +116,26 @@ public class RouteGuideClient {
     }
   }
 
+  /**
+   * Blocking server-streaming example. Calls listFeaturesAlongRoute with a route through
+   * {@code path} and prints each feature within {@code radiusMeters} of it.
+   */
+  public void listFeaturesAlongRoute(List<Point> path, int radiusMeters) {
+    info("*** ListFeaturesAlongRoute: {0} points, radius={1}m", path.size(), radiusMeters);
+
+    RouteCorridor request =
+        RouteCorridor.newBuilder().addAllPath(path).setRadiusM(radiusMeters).build();
+    try {
+      Iterator<Feature> features = blockingStub.listFeaturesAlongRoute(request);
+      for (int i = 1; features.hasNext(); i++) {
+        Feature feature = features.next();
+        info("Along route #" + i + ": {0}", feature.getName());
+      }
+    } catch (StatusRuntimeException e) {
+      warning("RPC failed: {0}", e.getStatus());
+    }
+  }
+
   /**
    * Async client-streaming example. Sends {@code numPoints} randomly chosen points from {@code
    * features} with a variable delay in between. Prints the statistics when they are sent from the
@@ -118,6 +150,10 @@ public class RouteGuideClient {
         info("Finished trip with {0} points. Passed {1} features. "
             + "Travelled {2} meters. It took {3} seconds.", summary.getPointCount(),
             summary.getFeatureCount(), summary.getDistance(), summary.getElapsedTime());
+        if (summary.getSimplifiedPointCount() > 0) {
+          info("The server simplified the route to {0} points.",
+              summary.getSimplifiedPointCount());
+        }
       }
 
       @Override
@@ -214,18 +250,105 @@ public class RouteGuideClient {
     return finishLatch;
   }
 
+  /**
+   * Returns a builder of plaintext channels to {@code target}, which may be any target gRPC
+   * supports, e.g. {@code unix:///path} for a Unix domain socket, or {@code in-process:name} for
+   * a server in this JVM.
+   */
+  static ManagedChannelBuilder<?> channelBuilder(String target) {
+    if (target.startsWith(IN_PROCESS_SCHEME)) {
+      return InProcessChannelBuilder.forName(target.substring(IN_PROCESS_SCHEME.length()));
+    }
+    return Grpc.newChannelBuilder(target, InsecureChannelCredentials.create());
+  }
+
+  private static void printUsage() {
+    System.err.println("Usage: [--option=value ...] [target [channels]]");
+    System.err.println("");
+    System.err.println("  target    The server to connect to. Defaults to " + DEFAULT_TARGET);
+    System.err.println("            Use unix:///path for a Unix domain socket.");
+    System.err.println("  channels  The number of connections to spread calls over.");
+    System.err.println("            Defaults to " + DEFAULT_CHANNELS);
+    System.err.println("  --hedging_max_attempts  Attempts of hedged GetFeature calls, 2 to "
+        + GetFeatureHedging.MAX_ATTEMPTS + ";");
+    System.err.println("            0 disables hedging. Defaults to "
+        + DEFAULT_HEDGING_MAX_ATTEMPTS);
+    System.err.println("  --hedging_delay_ms      Delay before each further attempt.");
+    System.err.println("            Defaults to " + DEFAULT_HEDGING_DELAY_MILLIS);
+    System.err.println("  --get_feature_cache     Answer repeated GetFeature lookups from a");
+    System.err.println("            local cache. Defaults to false");
+    System.err.println("  --dump_slow_calls       Finally log the server's slow and failed");
+    System.err.println("            calls. Defaults to false");
+  }
+
+  /** Prints {@code message} and the usage, then exits. */
+  private static void usageError(String message) {
+    System.err.println(message);
+    System.err.println("");
+    printUsage();
+    System.exit(1);
+  }
+
+  /** Returns the value of an {@code --name=value} option, exiting if it is not an int. */
+  private static int parseInt(String arg) {
+    int equals = arg.indexOf('=');
+    try {
+      return Integer.parseInt(arg.substring(equals + 1));
+    } catch (NumberFormatException e) {
+      usageError("Invalid value for " + arg.substring(0, equals) + ": "
+          + arg.substring(equals + 1));
+      throw e;
+    }
+  }
+
   /** Issues several different requests and then exits. */
   public static void main(String[] args) throws InterruptedException {
-    String target = "localhost:8980";
-    if (args.length > 0) {
-      if ("--help".equals(args[0])) {
-        System.err.println("Usage: [target]");
-        System.err.println("");
-        System.err.println("  target  The server to connect to. Defaults to " + target);
+    String target = DEFAULT_TARGET;
+    int channels = DEFAULT_CHANNELS;
+    int hedgingMaxAttempts = DEFAULT_HEDGING_MAX_ATTEMPTS;
+    long hedgingDelayMillis = DEFAULT_HEDGING_DELAY_MILLIS;
+    boolean getFeatureCache = false;
+    boolean dumpSlowCalls = false;
+    List<String> positional = new ArrayList<>();
+    for (String arg : args) {
+      if ("--help".equals(arg)) {
+        printUsage();
         System.exit(1);
+      } else if (arg.startsWith("--hedging_max_attempts=")) {
+        hedgingMaxAttempts = parseInt(arg);
+      } else if (arg.startsWith("--hedging_delay_ms=")) {
+        hedgingDelayMillis = parseInt(arg);
+      } else if (arg.startsWith("--get_feature_cache=")) {
+        getFeatureCache = Boolean.parseBoolean(arg.substring(arg.indexOf('=') + 1));
+      } else if (arg.startsWith("--dump_slow_calls=")) {
+        dumpSlowCalls = Boolean.parseBoolean(arg.substring(arg.indexOf('=') + 1));
+      } else {
+        positional.add(arg);
+      }
+    }
+    if (hedgingMaxAttempts != 0
+        && (hedgingMaxAttempts < 2 || hedgingMaxAttempts > GetFeatureHedging.MAX_ATTEMPTS)) {
+      usageError("--hedging_max_attempts must be 0 or between 2 and "
+          + GetFeatureHedging.MAX_ATTEMPTS + ", got " + hedgingMaxAttempts);
+    }
+    if (hedgingDelayMillis < 0) {
+      usageError("--hedging_delay_ms must not be negative, got " + hedgingDelayMillis);
+    }
+    if (positional.size() > 0) {
+      target = positional.get(0);
+    }
+    if (positional.size() > 1) {
+      try {
+        channels = Integer.parseInt(positional.get(1));
+      } catch (NumberFormatException e) {
+        usageError("Invalid value for channels: " + positional.get(1));
+      }
+      if (channels < 1) {
+        usageError("channels must be positive, got " + channels);
       }
-      target = args[0];
     }
+    Map<String, ?> serviceConfig = hedgingMaxAttempts > 0
+        ? GetFeatureHedging.serviceConfig(hedgingMaxAttempts, hedgingDelayMillis) : null;
 
     List<Feature> features;
     try {
@@ -235,10 +358,25 @@ public class RouteGuideClient {
       return;
     }
 
-    ManagedChannel channel = Grpc.newChannelBuilder(target, InsecureChannelCredentials.create())
-        .build();
+    ManagedChannel[] pool = new ManagedChannel[channels];
+    for (int i = 0; i < channels; i++) {
+      ManagedChannelBuilder<?> builder = channelBuilder(target);
+      if (serviceConfig != null) {
+        builder.defaultServiceConfig(serviceConfig).enableRetry();
+      }
+      pool[i] = builder.build();
+    }
+    ManagedChannel channel = channels == 1 ? pool[0] : new ChannelPool(pool);
+    GetFeatureHedging.AttemptRecorder attempts = GetFeatureHedging.newAttemptRecorder();
+    // Optionally answers repeated lookups of the same location locally instead of going to the
+    // server.
+    CachingGetFeatureInterceptor cache =
+        getFeatureCache ? new CachingGetFeatureInterceptor() : null;
     try {
-      RouteGuideClient client = new RouteGuideClient(channel);
+      Channel intercepted = cache != null
+          ? ClientInterceptors.intercept(channel, attempts, cache)
+          : ClientInterceptors.intercept(channel, attempts);
+      RouteGuideClient client = new RouteGuideClient(intercepted);
       // Looking for a valid feature
       client.getFeature(409146138, -746188906);
 
@@ -248,6 +386,10 @@ public class RouteGuideClient {
       // Looking for features between 40, -75 and 42, -73.
       client.listFeatures(400000000, -750000000, 420000000, -730000000);
 
+      // Looking for features within 2 km of a route through three known features.
+      client.listFeaturesAlongRoute(Arrays.asList(features.get(0).getLocation(),
+          features.get(1).getLocation(), features.get(2).getLocation()), 2000);
+
       // Record a few randomly selected points from the features file.
       client.recordRoute(features, 10);
 
@@ -257,6 +399,16 @@ public class RouteGuideClient {
       if (!finishLatch.await(1, TimeUnit.MINUTES)) {
         client.warning("routeChat did not finish within 1 minutes");
       }
+      if (cache != null) {
+        client.info("GetFeature cache: {0}", cache);
+      }
+      if (serviceConfig != null) {
+        client.info("GetFeature hedging: {0}", attempts);
+      }
+      if (dumpSlowCalls) {
+        client.info("Slow calls:\n{0}", RouteGuideAdminGrpc.newBlockingStub(channel)
+            .getSlowCalls(GetSlowCallsRequest.getDefaultInstance()));
+      }
     } finally {
       channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
     }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/**
+ * Java Flight Recorder events describing the work of {@link RouteGuideServer}'s service.
+ *
+ * <p>This is the Java 8 version, whose events are never recorded. The jar also carries a Java 17
+ * version under {@code META-INF/versions/17} in which they are {@code jdk.jfr.Event}s, so that a
+ * recording shows them next to the JVM's GC, lock and I/O events. Both versions have the same
+ * fields and methods: set the fields between {@code begin()} and {@code commit()}.
+ */
+final class RouteGuideEvents {
+  private RouteGuideEvents() {}
+
+  /** A GetFeature lookup. */
+  static final class GetFeature {
+    int latitude;
+    int longitude;
+    boolean found;
+
+    void begin() {}
+
+    void commit() {}
+  }
+
+  /** A ListFeatures call, from its start until its last feature was sent or it was cancelled. */
+  static final class ListFeatures {
+    String source;
+    int scanned;
+    int candidates;
+    int returned;
+    boolean cancelled;
+
+    void begin() {}
+
+    void commit() {}
+  }
+
+  /** A RecordRoute stream, from its start until the summary was sent or it was cancelled. */
+  static final class RecordRoute {
+    int points;
+    int features;
+    int distance;
+    boolean cancelled;
+
+    void begin() {}
+
+    void commit() {}
+  }
+
+  /** One RouteChat note and the previous notes at its location that were sent back. */
+  static final class RouteChatNote {
+    int latitude;
+    int longitude;
+    int fanOut;
+
+    void begin() {}
+
+    void commit() {}
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+/**
+ * Request headers through which clients pass per-call preferences to the RouteGuide server.
+ *
+ * <p>Clients attach them with e.g. {@code MetadataUtils.newAttachHeadersInterceptor}. On the
+ * server, {@link #serverInterceptor()} makes them available to the service through the
+ * {@link Context} of each call.
+ */
+public final class RouteGuideHeaders {
+  /**
+   * The order in which ListFeatures may return features: {@code "ordered"} (the default) returns
+   * them in database order, {@code "unordered"} lets a parallel scan return each partition as soon
+   * as it is done.
+   */
+  public static final Metadata.Key<String> LIST_FEATURES_ORDER =
+      Metadata.Key.of("routeguide-list-features-order", Metadata.ASCII_STRING_MARSHALLER);
+
+  /**
+   * Set to {@code "true"} to have RecordRoute return the simplified route in its summary, if the
+   * server simplifies routes.
+   */
+  public static final Metadata.Key<String> RETURN_SIMPLIFIED_ROUTE =
+      Metadata.Key.of("routeguide-return-simplified-route", Metadata.ASCII_STRING_MARSHALLER);
+
+  /**
+   * A response header echoing the request's {@code grpc-previous-rpc-attempts}: the number of
+   * attempts of a retried or hedged call the client made before the one being answered. Absent
+   * on responses to first attempts.
+   */
+  public static final Metadata.Key<String> PREVIOUS_RPC_ATTEMPTS =
+      Metadata.Key.of("routeguide-previous-rpc-attempts", Metadata.ASCII_STRING_MARSHALLER);
+
+  private static final Metadata.Key<String> GRPC_PREVIOUS_RPC_ATTEMPTS =
+      Metadata.Key.of("grpc-previous-rpc-attempts", Metadata.ASCII_STRING_MARSHALLER);
+
+  /** Whether the current call accepts unordered ListFeatures results. */
+  static final Context.Key<Boolean> UNORDERED = Context.keyWithDefault("unordered", false);
+
+  /** Whether the current RecordRoute call wants the simplified route back. */
+  static final Context.Key<Boolean> SIMPLIFIED_ROUTE =
+      Context.keyWithDefault("simplified-route", false);
+
+  private RouteGuideHeaders() {}
+
+  /**
+   * Returns an interceptor that copies the headers into the context of each call and echoes
+   * {@link #PREVIOUS_RPC_ATTEMPTS}.
+   */
+  static ServerInterceptor serverInterceptor() {
+    return new ServerInterceptor() {
+      @Override
+      public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+          Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+        final String previousAttempts = headers.get(GRPC_PREVIOUS_RPC_ATTEMPTS);
+        if (previousAttempts != null) {
+          call = new ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT>(call) {
+            @Override
+            public void sendHeaders(Metadata responseHeaders) {
+              responseHeaders.put(PREVIOUS_RPC_ATTEMPTS, previousAttempts);
+              super.sendHeaders(responseHeaders);
+            }
+          };
+        }
+        Context context = Context.current()
+            .withValue(UNORDERED, "unordered".equals(headers.get(LIST_FEATURES_ORDER)))
+            .withValue(SIMPLIFIED_ROUTE, "true".equals(headers.get(RETURN_SIMPLIFIED_ROUTE)));
+        return Contexts.interceptCall(context, call, headers, next);
+      }
+    };
+  }
+}
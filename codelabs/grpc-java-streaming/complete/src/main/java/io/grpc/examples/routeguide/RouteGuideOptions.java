@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/**
+ * Tuning options for {@link RouteGuideServer}. Each option can be set on the command line as
+ * {@code --name=value}; unset options keep the behaviour of the plain codelab server.
+ */
+final class RouteGuideOptions {
+  /** The port to listen on. */
+  int port = 8980;
+
+  /** The Unix domain socket to listen on instead of {@link #port}, or {@code null}. */
+  String unixSocket = null;
+
+  /** The in-process name to serve under instead of listening on {@link #port}, or {@code null}. */
+  String inProcessName = null;
+
+  /**
+   * The feature database to load, or {@code null} for the one bundled with the server. See
+   * {@link FeatureLoader} for the supported formats.
+   */
+  String featuresFile = null;
+
+  /** The number of threads that parse the feature database. */
+  int loadThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Where to keep a {@link FeatureSnapshot} of the loaded {@link #featuresFile}, or {@code null}
+   * to always load the feature file.
+   */
+  String snapshotFile = null;
+
+  /**
+   * The number of RecordRoute points a client may send ahead of the server. Zero keeps gRPC's
+   * automatic inbound flow control.
+   */
+  int recordRouteWindow = 0;
+
+  /**
+   * Whether RecordRoute decodes points straight from the received bytes instead of parsing them
+   * into {@link Point} messages.
+   */
+  boolean rawRecordRoute = false;
+
+  /**
+   * The distance in metres within which a RecordRoute point passes a feature. Zero only counts
+   * points exactly on a feature.
+   */
+  int recordRouteMatchRadius = 0;
+
+  /**
+   * The distance in metres within which RecordRoute simplifies routes with a
+   * {@link RouteSimplifier}. Zero disables simplification.
+   */
+  int recordRouteTolerance = 0;
+
+  /** The number of points RecordRoute simplification looks ahead. */
+  int recordRouteSimplifyWindow = 256;
+
+  /**
+   * The estimated number of matching features from which ListFeatures scans the database in
+   * parallel. Zero disables parallel scans.
+   */
+  long parallelScanThreshold = 0;
+
+  /** The number of threads used by parallel ListFeatures scans. */
+  int parallelScanThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The fraction of GetFeature calls that {@link GetFeatureFaults} holds for
+   * {@link #getFeatureSpikeMillis}, to try out hedging.
+   */
+  double getFeatureSpikeRate = 0;
+
+  /** How long a GetFeature latency spike lasts. */
+  int getFeatureSpikeMillis = 200;
+
+  /**
+   * The number of concurrent GetFeature calls beyond which the server rejects calls with
+   * {@code UNAVAILABLE}. Zero for no limit.
+   */
+  int getFeatureConcurrencyLimit = 0;
+
+  /**
+   * The pause in milliseconds that rejected GetFeature calls ask the client to make before its
+   * next retry or hedge. Zero sends no pushback, a negative value stops them.
+   */
+  int getFeaturePushbackMillis = 0;
+
+  /**
+   * How often the server logs its per-method {@link ServerStats}, in seconds. Zero only prints
+   * them at shutdown.
+   */
+  int statsIntervalSeconds = 0;
+
+  /**
+   * The time in milliseconds from half-close to the end of a call beyond which the
+   * {@link SlowCallRecorder} keeps the call. Negative disables the recorder.
+   */
+  long slowCallThresholdMillis = 100;
+
+  /** The number of slow or failed calls the {@link SlowCallRecorder} keeps. */
+  int slowCallLogSize = 256;
+
+  /** Prints the supported options to stderr. */
+  static void printUsage() {
+    RouteGuideOptions defaults = new RouteGuideOptions();
+    System.err.println("Usage: [--option=value ...]");
+    System.err.println("");
+    System.err.println("  --port                 The port to listen on. Defaults to "
+        + defaults.port);
+    System.err.println("  --unix_socket          Listen on this Unix domain socket instead");
+    System.err.println("                         (Linux only). Defaults to none");
+    System.err.println("  --in_process_name      Serve in-process clients of this JVM under this");
+    System.err.println("                         name instead. Defaults to none");
+    System.err.println("  --features_file        The feature database: .json, newline-delimited");
+    System.err.println("                         .ndjson/.jsonl or length-delimited .pb/.binpb.");
+    System.err.println("                         Defaults to the bundled database");
+    System.err.println("  --load_threads         Threads parsing .ndjson and .pb databases.");
+    System.err.println("                         Defaults to " + defaults.loadThreads);
+    System.err.println("  --snapshot_file        Snapshot of the loaded --features_file, reused");
+    System.err.println("                         on restart while the file is unchanged.");
+    System.err.println("                         Defaults to none");
+    System.err.println("  --record_route_window  Points a RecordRoute client may send ahead of");
+    System.err.println("                         the server; 0 uses automatic flow control.");
+    System.err.println("                         Defaults to " + defaults.recordRouteWindow);
+    System.err.println("  --raw_record_route     Decode RecordRoute points without allocating");
+    System.err.println("                         Point messages. Defaults to "
+        + defaults.rawRecordRoute);
+    System.err.println("  --record_route_match_radius  Metres within which a RecordRoute point");
+    System.err.println("                         passes a feature; 0 requires an exact match.");
+    System.err.println("                         Defaults to " + defaults.recordRouteMatchRadius);
+    System.err.println("  --record_route_tolerance  Metres within which RecordRoute simplifies");
+    System.err.println("                         routes; 0 keeps every point. Defaults to "
+        + defaults.recordRouteTolerance);
+    System.err.println("  --record_route_simplify_window  Points route simplification looks");
+    System.err.println("                         ahead. Defaults to "
+        + defaults.recordRouteSimplifyWindow);
+    System.err.println("  --parallel_scan_threshold  Estimated ListFeatures matches from which");
+    System.err.println("                         the database is scanned in parallel; 0 never");
+    System.err.println("                         does. Defaults to "
+        + defaults.parallelScanThreshold);
+    System.err.println("  --parallel_scan_threads  Threads for parallel scans. Defaults to "
+        + defaults.parallelScanThreads);
+    System.err.println("  --get_feature_spike_rate  Fraction of GetFeature calls delayed by");
+    System.err.println("                         --get_feature_spike_millis. Defaults to "
+        + defaults.getFeatureSpikeRate);
+    System.err.println("  --get_feature_spike_millis  Length of GetFeature latency spikes.");
+    System.err.println("                         Defaults to " + defaults.getFeatureSpikeMillis);
+    System.err.println("  --get_feature_concurrency_limit  Concurrent GetFeature calls beyond");
+    System.err.println("                         which calls are rejected; 0 for no limit.");
+    System.err.println("                         Defaults to "
+        + defaults.getFeatureConcurrencyLimit);
+    System.err.println("  --get_feature_pushback_millis  Retry pushback sent with rejected");
+    System.err.println("                         GetFeature calls; 0 for none, negative to stop");
+    System.err.println("                         retries. Defaults to "
+        + defaults.getFeaturePushbackMillis);
+    System.err.println("  --stats_interval_seconds  Seconds between logs of per-method call");
+    System.err.println("                         statistics and the ListFeatures cache hit");
+    System.err.println("                         rate; 0 only prints them at shutdown.");
+    System.err.println("                         Defaults to " + defaults.statsIntervalSeconds);
+    System.err.println("  --slow_call_threshold_millis  Time after half-close beyond which calls");
+    System.err.println("                         are kept for RouteGuideAdmin/GetSlowCalls, like");
+    System.err.println("                         failed calls; negative records none. Defaults to "
+        + defaults.slowCallThresholdMillis);
+    System.err.println("  --slow_call_log_size   Slow or failed calls kept. Defaults to "
+        + defaults.slowCallLogSize);
+  }
+
+  /**
+   * Parses {@code --name=value} arguments.
+   *
+   * @throws IllegalArgumentException if an argument is malformed or unknown, or a value is out of
+   *     range
+   */
+  static RouteGuideOptions parse(String[] args) {
+    RouteGuideOptions options = new RouteGuideOptions();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (!arg.startsWith("--") || eq < 0) {
+        throw new IllegalArgumentException("Expected --name=value, got " + arg);
+      }
+      String name = arg.substring(2, eq);
+      String value = arg.substring(eq + 1);
+      try {
+        switch (name) {
+          case "port":
+            options.port = Integer.parseInt(value);
+            break;
+          case "unix_socket":
+            options.unixSocket = value;
+            break;
+          case "in_process_name":
+            options.inProcessName = value;
+            break;
+          case "features_file":
+            options.featuresFile = value;
+            break;
+          case "load_threads":
+            options.loadThreads = Integer.parseInt(value);
+            break;
+          case "snapshot_file":
+            options.snapshotFile = value;
+            break;
+          case "record_route_window":
+            options.recordRouteWindow = Integer.parseInt(value);
+            break;
+          case "raw_record_route":
+            options.rawRecordRoute = Boolean.parseBoolean(value);
+            break;
+          case "record_route_match_radius":
+            options.recordRouteMatchRadius = Integer.parseInt(value);
+            break;
+          case "record_route_tolerance":
+            options.recordRouteTolerance = Integer.parseInt(value);
+            break;
+          case "record_route_simplify_window":
+            options.recordRouteSimplifyWindow = Integer.parseInt(value);
+            break;
+          case "parallel_scan_threshold":
+            options.parallelScanThreshold = Long.parseLong(value);
+            break;
+          case "parallel_scan_threads":
+            options.parallelScanThreads = Integer.parseInt(value);
+            break;
+          case "get_feature_spike_rate":
+            options.getFeatureSpikeRate = Double.parseDouble(value);
+            break;
+          case "get_feature_spike_millis":
+            options.getFeatureSpikeMillis = Integer.parseInt(value);
+            break;
+          case "get_feature_concurrency_limit":
+            options.getFeatureConcurrencyLimit = Integer.parseInt(value);
+            break;
+          case "get_feature_pushback_millis":
+            options.getFeaturePushbackMillis = Integer.parseInt(value);
+            break;
+          case "stats_interval_seconds":
+            options.statsIntervalSeconds = Integer.parseInt(value);
+            break;
+          case "slow_call_threshold_millis":
+            options.slowCallThresholdMillis = Long.parseLong(value);
+            break;
+          case "slow_call_log_size":
+            options.slowCallLogSize = Integer.parseInt(value);
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown option " + arg);
+        }
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid value for --" + name + ": " + value, e);
+      }
+    }
+    options.validate();
+    return options;
+  }
+
+  /** Rejects values the server would only fail on later, e.g. on every RecordRoute call. */
+  private void validate() {
+    check(port >= 0 && port <= 65535, "--port must be between 0 and 65535", port);
+    check(loadThreads > 0, "--load_threads must be positive", loadThreads);
+    check(recordRouteWindow >= 0, "--record_route_window must not be negative",
+        recordRouteWindow);
+    check(recordRouteMatchRadius >= 0, "--record_route_match_radius must not be negative",
+        recordRouteMatchRadius);
+    check(recordRouteTolerance >= 0, "--record_route_tolerance must not be negative",
+        recordRouteTolerance);
+    check(recordRouteSimplifyWindow >= 3, "--record_route_simplify_window must be at least 3",
+        recordRouteSimplifyWindow);
+    check(parallelScanThreshold >= 0, "--parallel_scan_threshold must not be negative",
+        parallelScanThreshold);
+    check(parallelScanThreads > 0, "--parallel_scan_threads must be positive",
+        parallelScanThreads);
+    check(getFeatureSpikeRate >= 0 && getFeatureSpikeRate <= 1,
+        "--get_feature_spike_rate must be between 0 and 1", getFeatureSpikeRate);
+    check(getFeatureSpikeMillis >= 0, "--get_feature_spike_millis must not be negative",
+        getFeatureSpikeMillis);
+    check(getFeatureConcurrencyLimit >= 0,
+        "--get_feature_concurrency_limit must not be negative", getFeatureConcurrencyLimit);
+    check(statsIntervalSeconds >= 0, "--stats_interval_seconds must not be negative",
+        statsIntervalSeconds);
+    check(slowCallLogSize > 0 && slowCallLogSize <= 1 << 20,
+        "--slow_call_log_size must be between 1 and " + (1 << 20), slowCallLogSize);
+  }
+
+  private static void check(boolean valid, String message, Object value) {
+    if (!valid) {
+      throw new IllegalArgumentException(message + ", got " + value);
+    }
+  }
+}
@@ -16,29 +16,38 @@
 
 package io.grpc.examples.routeguide;
 
-import static java.lang.Math.atan2;
-import static java.lang.Math.cos;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
-import static java.lang.Math.sin;
-import static java.lang.Math.sqrt;
-import static java.lang.Math.toRadians;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+import com.google.common.annotations.VisibleForTesting;
+import io.grpc.Context;
+import io.grpc.Contexts;
 import io.grpc.Grpc;
 import io.grpc.InsecureServerCredentials;
+import io.grpc.MethodDescriptor;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,8 +57,16 @@ import java.util.logging.Logger;
 public class RouteGuideServer {
   private static final Logger logger = Logger.getLogger(RouteGuideServer.class.getName());
 
-  private final int port;
+  private final String address;
+  // The transport created from the options, or null.
+  private final ServerTransport transport;
   private final Server server;
+  private final RouteGuideService service;
+  private final GetFeatureFaults getFeatureFaults;
+  private final ServerStats stats = new ServerStats(RouteGuideGrpc.getServiceDescriptor());
+  private final int statsIntervalSeconds;
+  // Null if slow calls are not recorded.
+  private final SlowCallRecorder slowCalls;
 
   public RouteGuideServer(int port) throws IOException {
     this(port, RouteGuideUtil.getDefaultFeaturesFile());
@@ -63,15 +80,78 @@ public class RouteGuideServer {
 
   /** Create a RouteGuide server using serverBuilder as a base and features as data. */
   public RouteGuideServer(ServerBuilder<?> serverBuilder, int port, Collection<Feature> features) {
-    this.port = port;
-    server = serverBuilder.addService(new RouteGuideService(features))
+    this(serverBuilder, port, features, new RouteGuideOptions());
+  }
+
+  /** Create a RouteGuide server listening on the port given by {@code options}. */
+  RouteGuideServer(RouteGuideOptions options) throws IOException {
+    this(ServerTransport.fromOptions(options), loadStore(options), options);
+  }
+
+  private RouteGuideServer(ServerTransport transport, FeatureStore store,
+      RouteGuideOptions options) {
+    this(transport.builder, transport.address, transport, store, options);
+  }
+
+  private static FeatureStore loadStore(RouteGuideOptions options) throws IOException {
+    if (options.featuresFile == null) {
+      if (options.snapshotFile != null) {
+        throw new IllegalArgumentException("--snapshot_file requires --features_file");
+      }
+      return new FeatureStore(
+          RouteGuideUtil.parseFeatures(RouteGuideUtil.getDefaultFeaturesFile()));
+    }
+    Path featuresFile = Paths.get(options.featuresFile);
+    FeatureLoader loader = new FeatureLoader(options.loadThreads);
+    if (options.snapshotFile == null) {
+      return new FeatureStore(loader.load(featuresFile));
+    }
+    return FeatureSnapshot.loadOrRestore(Paths.get(options.snapshotFile), featuresFile, loader);
+  }
+
+  RouteGuideServer(ServerBuilder<?> serverBuilder, int port, Collection<Feature> features,
+      RouteGuideOptions options) {
+    this(serverBuilder, port, new FeatureStore(features), options);
+  }
+
+  RouteGuideServer(ServerBuilder<?> serverBuilder, int port, FeatureStore store,
+      RouteGuideOptions options) {
+    this(serverBuilder, String.valueOf(port), null, store, options);
+  }
+
+  private RouteGuideServer(ServerBuilder<?> serverBuilder, String address,
+      ServerTransport transport, FeatureStore store, RouteGuideOptions options) {
+    this.address = address;
+    this.transport = transport;
+    this.statsIntervalSeconds = options.statsIntervalSeconds;
+    service = new RouteGuideService(store, options);
+    getFeatureFaults = GetFeatureFaults.fromOptions(options);
+    slowCalls = options.slowCallThresholdMillis >= 0
+        ? new SlowCallRecorder(options.slowCallThresholdMillis, TimeUnit.MILLISECONDS,
+            options.slowCallLogSize)
+        : null;
+    ServerServiceDefinition definition = service.serviceDefinition();
+    if (getFeatureFaults != null) {
+      definition = ServerInterceptors.intercept(definition, getFeatureFaults);
+    }
+    definition = ServerInterceptors.intercept(definition, RouteGuideHeaders.serverInterceptor());
+    if (slowCalls != null) {
+      // Outermost, so that the recorded times include the other interceptors.
+      definition = ServerInterceptors.intercept(definition, slowCalls);
+    }
+    server = serverBuilder.addService(definition)
+        .addService(new RouteGuideAdminService(slowCalls))
+        .addStreamTracerFactory(stats)
         .build();
   }
 
   /** Start serving requests. */
   public void start() throws IOException {
     server.start();
-    logger.info("Server started, listening on " + port);
+    logger.info("Server started, listening on " + address);
+    if (statsIntervalSeconds > 0) {
+      stats.logEvery(statsIntervalSeconds, service.listFeaturesCache);
+    }
     Runtime.getRuntime().addShutdownHook(new Thread() {
       @Override
       public void run() {
@@ -82,6 +162,14 @@ public class RouteGuideServer {
         } catch (InterruptedException e) {
           e.printStackTrace(System.err);
         }
+        service.printStats();
+        System.err.println("*** " + stats);
+        if (slowCalls != null) {
+          System.err.println("*** " + slowCalls);
+        }
+        if (getFeatureFaults != null) {
+          System.err.println("*** " + getFeatureFaults);
+        }
         System.err.println("*** server shut down");
       }
     });
@@ -89,9 +177,23 @@ public class RouteGuideServer {
 
   /** Stop serving requests and shutdown resources. */
   public void stop() throws InterruptedException {
+    stats.stopLogging();
     if (server != null) {
       server.shutdown().awaitTermination(30, TimeUnit.SECONDS);
     }
+    service.shutdown();
+    if (slowCalls != null) {
+      slowCalls.shutdown();
+    }
+    if (transport != null) {
+      transport.shutdown();
+    }
+  }
+
+  /** Returns the scanner answering ListFeatures, whose counters show how much work was done. */
+  @VisibleForTesting
+  FeatureScanner scanner() {
+    return service.scanner;
   }
 
   /**
@@ -107,7 +209,21 @@ public class RouteGuideServer {
    * Main method.  This comment makes the linter happy.
    */
   public static void main(String[] args) throws Exception {
-    RouteGuideServer server = new RouteGuideServer(8980);
+    if (args.length > 0 && "--help".equals(args[0])) {
+      RouteGuideOptions.printUsage();
+      System.exit(1);
+    }
+    RouteGuideOptions options;
+    try {
+      options = RouteGuideOptions.parse(args);
+    } catch (IllegalArgumentException e) {
+      System.err.println(e.getMessage());
+      System.err.println("");
+      RouteGuideOptions.printUsage();
+      System.exit(1);
+      return;
+    }
+    RouteGuideServer server = new RouteGuideServer(options);
     server.start();
     server.blockUntilShutdown();
   }
@@ -118,12 +234,41 @@ public class RouteGuideServer {
    * <p>See route_guide.proto for details of the methods.
    */
   private static class RouteGuideService extends RouteGuideGrpc.RouteGuideImplBase {
-    private final Collection<Feature> features;
+    private final FeatureStore store;
+    private final ListFeaturesCache listFeaturesCache = new ListFeaturesCache();
+    private final SingleFlight<ListFeaturesCache.Key, int[]> listFeaturesScans =
+        new SingleFlight<>();
+    private final FeatureScanner scanner;
+    // Candidates that cancelled ListFeatures calls did not have to check and send.
+    private final AtomicLong unsentCandidates = new AtomicLong();
+    private final InboundWindow.Metrics recordRouteWindows = new InboundWindow.Metrics();
     private final ConcurrentMap<Point, List<RouteNote>> routeNotes =
         new ConcurrentHashMap<Point, List<RouteNote>>();
+    private final RouteGuideOptions options;
+
+    RouteGuideService(FeatureStore store, RouteGuideOptions options) {
+      this.store = store;
+      this.options = options;
+      this.scanner =
+          new FeatureScanner(options.parallelScanThreshold, options.parallelScanThreads);
+    }
+
+    /** Releases the resources held by the service. */
+    void shutdown() throws InterruptedException {
+      scanner.shutdown();
+    }
 
-    RouteGuideService(Collection<Feature> features) {
-      this.features = features;
+    /**
+     * Prints the service's internal statistics to stderr, which stays usable during JVM
+     * shutdown.
+     */
+    void printStats() {
+      System.err.println("*** " + listFeaturesCache);
+      System.err.println("*** listFeatures scans: " + listFeaturesScans + ", " + scanner
+          + ", unsentCandidates=" + unsentCandidates);
+      if (options.recordRouteWindow > 0) {
+        System.err.println("*** recordRoute flow control: " + recordRouteWindows);
+      }
     }
 
     /**
@@ -135,7 +280,14 @@ public class RouteGuideServer {
      */
     @Override
     public void getFeature(Point request, StreamObserver<Feature> responseObserver) {
-      responseObserver.onNext(checkFeature(request));
+      RouteGuideEvents.GetFeature event = new RouteGuideEvents.GetFeature();
+      event.begin();
+      Feature feature = checkFeature(request);
+      event.latitude = request.getLatitude();
+      event.longitude = request.getLongitude();
+      event.found = RouteGuideUtil.exists(feature);
+      event.commit();
+      responseObserver.onNext(feature);
       responseObserver.onCompleted();
     }
 
@@ -147,23 +299,104 @@ public class RouteGuideServer {
      */
     @Override
     public void listFeatures(Rectangle request, StreamObserver<Feature> responseObserver) {
+      RouteGuideEvents.ListFeatures event = new RouteGuideEvents.ListFeatures();
+      event.begin();
       int left = min(request.getLo().getLongitude(), request.getHi().getLongitude());
       int right = max(request.getLo().getLongitude(), request.getHi().getLongitude());
       int top = max(request.getLo().getLatitude(), request.getHi().getLatitude());
       int bottom = min(request.getLo().getLatitude(), request.getHi().getLatitude());
 
-      for (Feature feature : features) {
-        if (!RouteGuideUtil.exists(feature)) {
-          continue;
-        }
+      ServerCallStreamObserver<Feature> serverCallObserver =
+          (ServerCallStreamObserver<Feature>) responseObserver;
+      final ListFeaturesEmitter emitter = new ListFeaturesEmitter(
+          store, serverCallObserver, left, right, bottom, top, unsentCandidates, event);
+      serverCallObserver.setOnReadyHandler(emitter);
+      serverCallObserver.setOnCancelHandler(emitter::cancel);
+
+      // Popular tiles are served from the indices cached for the enclosing grid-aligned
+      // rectangle; only those candidates need to be checked against the exact bounds.
+      ListFeaturesCache.Key key = listFeaturesCache.snap(left, right, bottom, top);
+      int[] candidates = listFeaturesCache.get(store, key);
+      if (candidates != null) {
+        event.source = "cache";
+        emitter.start(candidates);
+        return;
+      }
+      scanAndEmit(key, emitter, event, Context.current(), !RouteGuideHeaders.UNORDERED.get());
+    }
 
-        int lat = feature.getLocation().getLatitude();
-        int lon = feature.getLocation().getLongitude();
-        if (lon >= left && lon <= right && lat >= bottom && lat <= top) {
-          responseObserver.onNext(feature);
-        }
+    /**
+     * Gets all features within a given distance of a route, each once, in the order in which the
+     * route passes them.
+     *
+     * @param request the route and the distance from it.
+     * @param responseObserver the observer that will receive the features.
+     */
+    @Override
+    public void listFeaturesAlongRoute(RouteCorridor request,
+        StreamObserver<Feature> responseObserver) {
+      if (request.getPathCount() == 0 || request.getRadiusM() < 0) {
+        responseObserver.onError(Status.INVALID_ARGUMENT
+            .withDescription("A route corridor needs a path and a non-negative radius")
+            .asRuntimeException());
+        return;
       }
-      responseObserver.onCompleted();
+      ServerCallStreamObserver<Feature> serverCallObserver =
+          (ServerCallStreamObserver<Feature>) responseObserver;
+      // The matches are final, so the emitter's own bounds check must let all of them through.
+      final ListFeaturesEmitter emitter = new ListFeaturesEmitter(store, serverCallObserver,
+          Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE,
+          unsentCandidates);
+      serverCallObserver.setOnReadyHandler(emitter);
+      serverCallObserver.setOnCancelHandler(emitter::cancel);
+      int[] matches;
+      try {
+        matches = CorridorSearch.search(
+            store, request.getPathList(), request.getRadiusM(), Context.current()::isCancelled);
+      } catch (CancellationException e) {
+        // The call is gone; there is nobody left to tell.
+        return;
+      }
+      emitter.start(matches);
+    }
+
+    /**
+     * Scans the store for the candidates of {@code key} and streams them through
+     * {@code emitter}. Concurrent misses for the same rectangle share one scan, which stops early
+     * once every caller sharing it has been cancelled or has passed its deadline. The caller that
+     * runs the scan streams each partition as soon as it is available; the others receive the
+     * complete result.
+     */
+    private void scanAndEmit(final ListFeaturesCache.Key key, final ListFeaturesEmitter emitter,
+        final RouteGuideEvents.ListFeatures event, final Context context, final boolean ordered) {
+      final boolean[] ranScan = new boolean[1];
+      listFeaturesScans.execute(key, context::isCancelled, abandoned -> {
+        ranScan[0] = true;
+        int[] scanned = scanner.scan(store, key.left, key.right, key.bottom, key.top, abandoned,
+            emitter, ordered);
+        listFeaturesCache.put(store, key, scanned);
+        return scanned;
+      }).whenComplete((scanned, t) -> {
+        if (t == null) {
+          if (ranScan[0]) {
+            event.source = "scan";
+            event.scanned = store.size();
+            emitter.complete();
+          } else {
+            event.source = "shared scan";
+            emitter.start(scanned);
+          }
+        } else if (t instanceof CancellationException && !ranScan[0] && !context.isCancelled()) {
+          // Joined a shared scan just as all of its other callers gave up on it.
+          scanAndEmit(key, emitter, event, context, ordered);
+        } else if (t instanceof CancellationException && context.isCancelled()) {
+          // The scan may stop before the cancel handler has run. Report why, not UNKNOWN.
+          Status status = Contexts.statusFromCancelled(context);
+          emitter.fail(status != null ? status.asRuntimeException() : t);
+        } else {
+          emitter.fail(t);
+        }
+      });
     }
 
     /**
@@ -175,41 +408,116 @@ public class RouteGuideServer {
      */
     @Override
     public StreamObserver<Point> recordRoute(final StreamObserver<RouteSummary> responseObserver) {
-      return new StreamObserver<Point>() {
-        int pointCount;
-        int featureCount;
-        int distance;
-        Point previous;
-        final long startTime = System.nanoTime();
-
+      return new RecordRouteObserver<Point>(responseObserver) {
         @Override
-        public void onNext(Point point) {
-          pointCount++;
-          if (RouteGuideUtil.exists(checkFeature(point))) {
-            featureCount++;
-          }
-          // For each point after the first, add the incremental distance from the previous point to
-          // the total distance value.
-          if (previous != null) {
-            distance += calcDistance(previous, point);
-          }
-          previous = point;
+        void add(Point point) {
+          route.add(point.getLatitude(), point.getLongitude());
         }
+      };
+    }
 
+    /**
+     * Same as {@link #recordRoute}, but receives each point still serialized and decodes its
+     * coordinates in place, so that no per-point objects are allocated.
+     */
+    private StreamObserver<InputStream> recordRawRoute(
+        final StreamObserver<RouteSummary> responseObserver) {
+      final PointDecoder decoder = new PointDecoder();
+      return new RecordRouteObserver<InputStream>(responseObserver) {
         @Override
-        public void onError(Throwable t) {
-          logger.log(Level.WARNING, "recordRoute cancelled");
+        void add(InputStream point) {
+          decoder.decode(point);
+          route.add(decoder.latitude(), decoder.longitude());
         }
+      };
+    }
 
-        @Override
-        public void onCompleted() {
-          long seconds = NANOSECONDS.toSeconds(System.nanoTime() - startTime);
-          responseObserver.onNext(RouteSummary.newBuilder().setPointCount(pointCount)
-              .setFeatureCount(featureCount).setDistance(distance)
-              .setElapsedTime((int) seconds).build());
-          responseObserver.onCompleted();
+    /**
+     * Returns the definition to register with the server: that of {@link #bindService}, with the
+     * RecordRoute handler replaced by {@link #recordRawRoute} if so configured.
+     */
+    ServerServiceDefinition serviceDefinition() {
+      ServerServiceDefinition generated = bindService();
+      if (!options.rawRecordRoute) {
+        return generated;
+      }
+      MethodDescriptor<Point, RouteSummary> recordRoute = RouteGuideGrpc.getRecordRouteMethod();
+      ServerServiceDefinition.Builder builder =
+          ServerServiceDefinition.builder(RouteGuideGrpc.SERVICE_NAME);
+      for (ServerMethodDefinition<?, ?> method : generated.getMethods()) {
+        if (!method.getMethodDescriptor().getFullMethodName()
+            .equals(recordRoute.getFullMethodName())) {
+          builder.addMethod(method);
         }
-      };
+      }
+      builder.addMethod(
+          recordRoute.toBuilder(PointDecoder.MARSHALLER, recordRoute.getResponseMarshaller())
+              .build(),
+          ServerCalls.asyncClientStreamingCall(this::recordRawRoute));
+      return builder.build();
+    }
+
+    /**
+     * Feeds the points of a RecordRoute stream to a {@link RouteAccumulator} and sends the
+     * summary once the client is done.
+     */
+    private abstract class RecordRouteObserver<T> implements StreamObserver<T> {
+      final StreamObserver<RouteSummary> responseObserver;
+      final RouteAccumulator route = new RouteAccumulator(store, options.recordRouteMatchRadius,
+          options.recordRouteTolerance, options.recordRouteSimplifyWindow,
+          RouteGuideHeaders.SIMPLIFIED_ROUTE.get());
+      final InboundWindow window;
+      final RouteGuideEvents.RecordRoute event = new RouteGuideEvents.RecordRoute();
+
+      RecordRouteObserver(StreamObserver<RouteSummary> responseObserver) {
+        this.responseObserver = responseObserver;
+        event.begin();
+        // With a window configured, points are only requested as fast as they are processed, so
+        // a slow handler makes the client wait instead of the server buffering its uploads.
+        this.window = options.recordRouteWindow > 0
+            ? new InboundWindow((ServerCallStreamObserver<RouteSummary>) responseObserver,
+                options.recordRouteWindow, recordRouteWindows)
+            : null;
+      }
+
+      /** Adds one received point to {@link #route}. */
+      abstract void add(T point);
+
+      @Override
+      public void onNext(T point) {
+        if (window != null) {
+          window.received();
+        }
+        add(point);
+        if (window != null) {
+          window.processed();
+        }
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        if (window != null) {
+          window.finish();
+        }
+        event.points = route.pointCount();
+        event.cancelled = true;
+        event.commit();
+        logger.log(Level.WARNING, "recordRoute cancelled");
+      }
+
+      @Override
+      public void onCompleted() {
+        if (window != null) {
+          window.finish();
+        }
+        RouteSummary summary = route.summary();
+        responseObserver.onNext(summary);
+        responseObserver.onCompleted();
+        event.points = summary.getPointCount();
+        event.features = summary.getFeatureCount();
+        event.distance = summary.getDistance();
+        event.commit();
+      }
     }
 
     /**
@@ -224,15 +532,22 @@ public class RouteGuideServer {
       return new StreamObserver<RouteNote>() {
         @Override
         public void onNext(RouteNote note) {
+          RouteGuideEvents.RouteChatNote event = new RouteGuideEvents.RouteChatNote();
+          event.begin();
           List<RouteNote> notes = getOrCreateNotes(note.getLocation());
 
           // Respond with all previous notes at this location.
-          for (RouteNote prevNote : notes.toArray(new RouteNote[0])) {
+          RouteNote[] prevNotes = notes.toArray(new RouteNote[0]);
+          for (RouteNote prevNote : prevNotes) {
             responseObserver.onNext(prevNote);
           }
 
           // Now add the new note to the list
           notes.add(note);
+          event.latitude = note.getLocation().getLatitude();
+          event.longitude = note.getLocation().getLongitude();
+          event.fanOut = prevNotes.length;
+          event.commit();
         }
 
         @Override
@@ -263,39 +578,13 @@ public class RouteGuideServer {
      * @return The feature object at the point. Note that an empty name indicates no feature.
      */
     private Feature checkFeature(Point location) {
-      for (Feature feature : features) {
-        if (feature.getLocation().getLatitude() == location.getLatitude()
-            && feature.getLocation().getLongitude() == location.getLongitude()) {
-          return feature;
-        }
+      int index = store.indexOf(location.getLatitude(), location.getLongitude());
+      if (index >= 0) {
+        return store.get(index);
       }
 
       // No feature was found, return an unnamed feature.
       return Feature.newBuilder().setName("").setLocation(location).build();
     }
-
-    /**
-     * Calculate the distance between two points using the "haversine" formula.
-     * The formula is based on http://mathforum.org/library/drmath/view/51879.html.
-     *
-     * @param start The starting point
-     * @param end The end point
-     * @return The distance between the points in meters
-     */
-    private static int calcDistance(Point start, Point end) {
-      int r = 6371000; // earth radius in meters
-      double lat1 = toRadians(RouteGuideUtil.getLatitude(start));
-      double lat2 = toRadians(RouteGuideUtil.getLatitude(end));
-      double lon1 = toRadians(RouteGuideUtil.getLongitude(start));
-      double lon2 = toRadians(RouteGuideUtil.getLongitude(end));
-      double deltaLat = lat2 - lat1;
-      double deltaLon = lon2 - lon1;
-
-      double a = sin(deltaLat / 2) * sin(deltaLat / 2)
-          + cos(lat1) * cos(lat2) * sin(deltaLon / 2) * sin(deltaLon / 2);
-      double c = 2 * atan2(sqrt(a), sqrt(1 - a));
-
-      return (int) (r * c);
-    }
   }
 }
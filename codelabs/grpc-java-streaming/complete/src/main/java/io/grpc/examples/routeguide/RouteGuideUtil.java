@@ -16,6 +16,12 @@
 
 package io.grpc.examples.routeguide;
 
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+
 import com.google.protobuf.util.JsonFormat;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,6 +51,40 @@ public class RouteGuideUtil {
     return location.getLongitude() / COORD_FACTOR;
   }
 
+  /**
+   * Calculate the distance between two points using the "haversine" formula.
+   * The formula is based on http://mathforum.org/library/drmath/view/51879.html.
+   *
+   * @param start The starting point
+   * @param end The end point
+   * @return The distance between the points in meters
+   */
+  public static int calcDistance(Point start, Point end) {
+    return calcDistance(start.getLatitude(), start.getLongitude(),
+        end.getLatitude(), end.getLongitude());
+  }
+
+  /**
+   * Calculate the distance in meters between two points given by their E7 coordinates, as
+   * {@link #calcDistance(Point, Point)} does.
+   */
+  public static int calcDistance(int startLatitude, int startLongitude, int endLatitude,
+      int endLongitude) {
+    int r = 6371000; // earth radius in meters
+    double lat1 = toRadians(startLatitude / COORD_FACTOR);
+    double lat2 = toRadians(endLatitude / COORD_FACTOR);
+    double lon1 = toRadians(startLongitude / COORD_FACTOR);
+    double lon2 = toRadians(endLongitude / COORD_FACTOR);
+    double deltaLat = lat2 - lat1;
+    double deltaLon = lon2 - lon1;
+
+    double a = sin(deltaLat / 2) * sin(deltaLat / 2)
+        + cos(lat1) * cos(lat2) * sin(deltaLon / 2) * sin(deltaLon / 2);
+    double c = 2 * atan2(sqrt(a), sqrt(1 - a));
+
+    return (int) (r * c);
+  }
+
   /**
    * Gets the default features file from classpath.
    */
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/**
+ * Simplifies a stream of route points with the Douglas-Peucker algorithm while they arrive.
+ *
+ * <p>Points are collected in a window of a fixed size. When the window is full it is simplified,
+ * the points kept up to the last interior one are passed on, and the window restarts from that
+ * point with the points after it. The simplified route therefore stays within the tolerance of
+ * every input point, but unlike the offline algorithm it keeps at least one point per window,
+ * even along a straight line. Memory and the cost per point are bounded by the window size.
+ *
+ * <p>Distances to the simplified segments are measured in a local equirectangular projection,
+ * which is accurate as long as a window does not span more than a few hundred kilometres.
+ */
+final class RouteSimplifier {
+  /** Receives the points of the simplified route. */
+  interface Output {
+    void point(int latitude, int longitude);
+  }
+
+  // The earth radius used by RouteGuideUtil.calcDistance.
+  private static final double METERS_PER_COORD = 6371000 * Math.PI / 180 / 1e7;
+
+  private final double toleranceSquared;
+  private final Output output;
+  // The window. The first point, if any, has already been passed on.
+  private final int[] latitudes;
+  private final int[] longitudes;
+  private final boolean[] kept;
+  private final int[] stack;
+  private int size;
+  private int outputCount;
+
+  /**
+   * Creates a simplifier that drops points closer than {@code toleranceMeters} to the simplified
+   * route, looking at most {@code window} points ahead.
+   */
+  RouteSimplifier(int toleranceMeters, int window, Output output) {
+    if (toleranceMeters < 0) {
+      throw new IllegalArgumentException("toleranceMeters must not be negative: "
+          + toleranceMeters);
+    }
+    if (window < 3) {
+      throw new IllegalArgumentException("window must be at least 3: " + window);
+    }
+    double tolerance = toleranceMeters / METERS_PER_COORD;
+    this.toleranceSquared = tolerance * tolerance;
+    this.output = output;
+    this.latitudes = new int[window];
+    this.longitudes = new int[window];
+    this.kept = new boolean[window];
+    this.stack = new int[2 * window];
+  }
+
+  /** Adds the next point of the route. */
+  void add(int latitude, int longitude) {
+    latitudes[size] = latitude;
+    longitudes[size] = longitude;
+    if (size++ == 0) {
+      emit(0);
+    } else if (size == latitudes.length) {
+      simplifyWindow(false);
+    }
+  }
+
+  /** Passes on the rest of the simplified route, ending with the last point added. */
+  void flush() {
+    if (size > 1) {
+      simplifyWindow(true);
+    }
+  }
+
+  /** Returns the number of points passed on so far. */
+  int outputCount() {
+    return outputCount;
+  }
+
+  private void simplifyWindow(boolean flush) {
+    int last = size - 1;
+    markKept(last);
+    // Unless this is the end of the route, the last point of the window is only kept because
+    // the window ends there, so restart from the last point that was kept on its own merits.
+    int end = last;
+    if (!flush) {
+      for (int i = last - 1; i > 0; i--) {
+        if (kept[i]) {
+          end = i;
+          break;
+        }
+      }
+    }
+    for (int i = 1; i <= end; i++) {
+      if (kept[i]) {
+        emit(i);
+      }
+    }
+    size -= end;
+    System.arraycopy(latitudes, end, latitudes, 0, size);
+    System.arraycopy(longitudes, end, longitudes, 0, size);
+  }
+
+  /** Runs Douglas-Peucker over {@code [0, last]}, setting {@link #kept}. */
+  private void markKept(int last) {
+    double cos = Math.cos(Math.toRadians(latitudes[0] / 1e7));
+    kept[0] = true;
+    kept[last] = true;
+    for (int i = 1; i < last; i++) {
+      kept[i] = false;
+    }
+    int top = 0;
+    stack[top++] = 0;
+    stack[top++] = last;
+    while (top > 0) {
+      int to = stack[--top];
+      int from = stack[--top];
+      int farthest = -1;
+      double farthestSquared = toleranceSquared;
+      for (int i = from + 1; i < to; i++) {
+        double d = distanceSquared(i, from, to, cos);
+        if (d > farthestSquared) {
+          farthest = i;
+          farthestSquared = d;
+        }
+      }
+      if (farthest >= 0) {
+        kept[farthest] = true;
+        stack[top++] = from;
+        stack[top++] = farthest;
+        stack[top++] = farthest;
+        stack[top++] = to;
+      }
+    }
+  }
+
+  /** Returns the squared projected distance from point {@code i} to segment {@code [a, b]}. */
+  private double distanceSquared(int i, int a, int b, double cos) {
+    double dx = ((double) longitudes[b] - longitudes[a]) * cos;
+    double dy = (double) latitudes[b] - latitudes[a];
+    double px = ((double) longitudes[i] - longitudes[a]) * cos;
+    double py = (double) latitudes[i] - latitudes[a];
+    double lengthSquared = dx * dx + dy * dy;
+    // The position of the closest point along the segment, from 0 to 1.
+    double t = lengthSquared == 0
+        ? 0 : Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+    double ex = px - t * dx;
+    double ey = py - t * dy;
+    return ex * ex + ey * ey;
+  }
+
+  private void emit(int i) {
+    outputCount++;
+    output.point(latitudes[i], longitudes[i]);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/** The portable implementation of {@link BoundsFilter}, one coordinate pair at a time. */
+final class ScalarBoundsFilter {
+  private ScalarBoundsFilter() {}
+
+  /** See {@link BoundsFilter#filter}. */
+  static int filter(int[] latitudes, int[] longitudes, int from, int to, int left, int right,
+      int bottom, int top, long[] matches) {
+    int count = 0;
+    for (int word = 0, start = from; start < to; word++, start += 64) {
+      int end = Math.min(to, start + 64);
+      long bits = 0;
+      for (int i = start; i < end; i++) {
+        int lat = latitudes[i];
+        int lon = longitudes[i];
+        if (lon >= left && lon <= right && lat >= bottom && lat <= top) {
+          bits |= 1L << (i - start);
+        }
+      }
+      matches[word] = bits;
+      count += Long.bitCount(bits);
+    }
+    return count;
+  }
+}
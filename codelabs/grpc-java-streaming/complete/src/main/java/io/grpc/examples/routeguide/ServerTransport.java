@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ServerBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.netty.shaded.io.netty.channel.EventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.Epoll;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollEventLoopGroup;
+import io.grpc.netty.shaded.io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.grpc.netty.shaded.io.netty.channel.unix.DomainSocketAddress;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where a {@link RouteGuideServer} listens: a TCP port, a Unix domain socket or an in-process
+ * name.
+ *
+ * <p>A server running next to its only client, e.g. as a sidecar, can skip the TCP stack with a
+ * Unix domain socket, which clients reach with a {@code unix:///path} target. Unix domain sockets
+ * need Netty's native epoll transport, so they are only available on Linux. A server embedded in
+ * the client's JVM can skip the network entirely with an in-process name, which clients reach
+ * with an {@code in-process:name} target, see {@link RouteGuideClient#channelBuilder}.
+ */
+final class ServerTransport {
+  /** The longest socket path Linux accepts, in bytes. */
+  private static final int MAX_SOCKET_PATH_BYTES = 107;
+
+  final ServerBuilder<?> builder;
+  /** Describes the listening address for logging. */
+  final String address;
+  // Owned by the transport, or null.
+  private final EventLoopGroup eventLoopGroup;
+
+  private ServerTransport(ServerBuilder<?> builder, String address,
+      EventLoopGroup eventLoopGroup) {
+    this.builder = builder;
+    this.address = address;
+    this.eventLoopGroup = eventLoopGroup;
+  }
+
+  /** Returns the transport selected by {@code options}. */
+  static ServerTransport fromOptions(RouteGuideOptions options) throws IOException {
+    if (options.unixSocket != null && options.inProcessName != null) {
+      throw new IllegalArgumentException(
+          "--unix_socket and --in_process_name are mutually exclusive");
+    }
+    if (options.unixSocket != null) {
+      return unixSocket(Paths.get(options.unixSocket));
+    }
+    if (options.inProcessName != null) {
+      return inProcess(options.inProcessName);
+    }
+    return tcp(options.port);
+  }
+
+  static ServerTransport tcp(int port) {
+    return new ServerTransport(
+        Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create()),
+        String.valueOf(port), null);
+  }
+
+  /**
+   * Listens on a Unix domain socket at {@code path}, replacing a socket left there by a previous
+   * run. Any other existing file is an error.
+   */
+  static ServerTransport unixSocket(Path path) throws IOException {
+    if (!Epoll.isAvailable()) {
+      throw new IOException("Unix domain sockets need Netty's epoll transport",
+          Epoll.unavailabilityCause());
+    }
+    if (path.toString().getBytes(StandardCharsets.UTF_8).length > MAX_SOCKET_PATH_BYTES) {
+      throw new IOException("Unix domain socket paths are limited to " + MAX_SOCKET_PATH_BYTES
+          + " bytes: " + path);
+    }
+    if (Files.exists(path)) {
+      if (Files.isRegularFile(path) || Files.isDirectory(path)) {
+        throw new IOException("Not a socket: " + path);
+      }
+      Files.delete(path);
+    }
+    EventLoopGroup group = new EpollEventLoopGroup();
+    NettyServerBuilder builder = NettyServerBuilder
+        .forAddress(new DomainSocketAddress(path.toString()), InsecureServerCredentials.create())
+        .channelType(EpollServerDomainSocketChannel.class)
+        .bossEventLoopGroup(group)
+        .workerEventLoopGroup(group);
+    return new ServerTransport(builder, "unix://" + path.toAbsolutePath(), group);
+  }
+
+  static ServerTransport inProcess(String name) {
+    return new ServerTransport(InProcessServerBuilder.forName(name), "in-process:" + name, null);
+  }
+
+  /** Releases the transport's resources, once the server has terminated. */
+  void shutdown() {
+    if (eventLoopGroup != null) {
+      eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Collapses concurrent computations of the same key into one.
+ *
+ * <p>The first caller for a key runs the computation on its own thread; callers arriving while it
+ * is still running receive the same future instead of starting another computation. Once the
+ * computation finishes the key is forgotten, so later callers start afresh.
+ *
+ * <p>Every caller states whether it is still interested in the result. The computation is handed
+ * a check that only reports cancellation once all callers sharing it have lost interest, so it
+ * can stop early without failing callers that are still waiting.
+ */
+final class SingleFlight<K, V> {
+  private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong executions = new AtomicLong();
+  private final AtomicLong shared = new AtomicLong();
+
+  /**
+   * Returns the result of {@code computation} for {@code key}, running it on the calling thread
+   * unless an identical computation is already in flight.
+   *
+   * @param cancelled reports whether this caller has lost interest in the result
+   * @param computation receives a check that returns {@code true} once every caller sharing the
+   *     computation has lost interest
+   */
+  CompletableFuture<V> execute(K key, BooleanSupplier cancelled,
+      Function<BooleanSupplier, V> computation) {
+    Flight<V> flight = new Flight<>(cancelled);
+    Flight<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      existing.callers.add(cancelled);
+      shared.incrementAndGet();
+      return existing.future;
+    }
+    executions.incrementAndGet();
+    try {
+      flight.future.complete(computation.apply(flight::abandoned));
+    } catch (Throwable t) {
+      flight.future.completeExceptionally(t);
+    } finally {
+      inFlight.remove(key, flight);
+    }
+    return flight.future;
+  }
+
+  /** Returns the number of computations actually run. */
+  long executionCount() {
+    return executions.get();
+  }
+
+  /** Returns the number of callers that received the result of another caller's computation. */
+  long sharedCount() {
+    return shared.get();
+  }
+
+  @Override
+  public String toString() {
+    return "SingleFlight{executions=" + executions.get() + ", shared=" + shared.get() + "}";
+  }
+
+  private static final class Flight<V> {
+    final CompletableFuture<V> future = new CompletableFuture<>();
+    final List<BooleanSupplier> callers = new CopyOnWriteArrayList<>();
+
+    Flight(BooleanSupplier leader) {
+      callers.add(leader);
+    }
+
+    boolean abandoned() {
+      for (BooleanSupplier caller : callers) {
+        if (!caller.getAsBoolean()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
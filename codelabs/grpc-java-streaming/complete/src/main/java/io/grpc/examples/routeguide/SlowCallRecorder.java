@@ -0,0 +1,291 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import com.google.protobuf.MessageOrBuilder;
+import com.google.protobuf.TextFormat;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Remembers the most recent calls that were slow or failed, so that outliers can be looked at
+ * after the fact through {@link RouteGuideAdminService}.
+ *
+ * <p>Each call records when its first request arrived, when the client half-closed, when the
+ * first response was sent and when it ended, along with its message counts and a reference to its
+ * first request. A call is kept if it fails, or if it takes longer than the threshold from
+ * half-close (or its start, if the client never half-closed) to its end, so that client-streaming
+ * calls are not kept just because their clients take their time sending.
+ *
+ * <p>Recording is cheap enough to leave on: a call that is neither slow nor failed costs its two
+ * wrappers and a few field reads and writes. Calls read the time from a field that a daemon
+ * thread advances every {@link #TICK_NANOS}, as {@link System#nanoTime} itself costs more than
+ * all the rest; recorded times are only that precise. Only kept calls build a {@link SlowCall},
+ * which is stored with a single write into a fixed-size ring of slots, so writers never wait for
+ * each other or for readers; the oldest calls are overwritten.
+ */
+final class SlowCallRecorder implements ServerInterceptor {
+  /** First requests longer than this many characters are shortened. */
+  private static final int MAX_REQUEST_CHARS = 256;
+  /** How often the recorder's clock advances. */
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final Comparator<SlowCall> BY_SEQUENCE = new Comparator<SlowCall>() {
+    @Override
+    public int compare(SlowCall a, SlowCall b) {
+      return Long.compare(a.getSequence(), b.getSequence());
+    }
+  };
+
+  private final long thresholdNanos;
+  private final AtomicReferenceArray<SlowCall> slots;
+  private final int mask;
+  private final AtomicLong sequence = new AtomicLong();
+  private final ScheduledExecutorService ticker;
+  // The System.nanoTime() of the last tick.
+  private volatile long now = System.nanoTime();
+
+  /**
+   * Creates a recorder that keeps calls slower than {@code threshold} and failed calls, the last
+   * {@code size} of them.
+   *
+   * @param size the number of calls to keep, rounded up to a power of two
+   */
+  SlowCallRecorder(long threshold, TimeUnit unit, int size) {
+    if (threshold < 0 || size <= 0 || size > 1 << 20) {
+      throw new IllegalArgumentException(
+          "Invalid slow call threshold " + threshold + " or size " + size);
+    }
+    this.thresholdNanos = unit.toNanos(threshold);
+    int slotCount = Integer.highestOneBit(size);
+    if (slotCount < size) {
+      slotCount <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<>(slotCount);
+    this.mask = slotCount - 1;
+    this.ticker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "slow-call-clock");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    ticker.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        now = System.nanoTime();
+      }
+    }, TICK_NANOS, TICK_NANOS, TimeUnit.NANOSECONDS);
+  }
+
+  /** Stops the recorder's clock. Calls that are still running are no longer timed. */
+  void shutdown() {
+    ticker.shutdown();
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+      Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    RecordedCall<ReqT, RespT> recorded = new RecordedCall<>(call, this);
+    return new RecordedListener<>(next.startCall(recorded, headers), recorded);
+  }
+
+  /**
+   * Returns the kept calls recorded after {@code afterSequence}, oldest first; with a positive
+   * {@code limit}, only the most recent {@code limit} of them.
+   */
+  SlowCalls snapshot(long afterSequence, int limit) {
+    List<SlowCall> calls = new ArrayList<>();
+    for (int i = 0; i < slots.length(); i++) {
+      SlowCall call = slots.get(i);
+      if (call != null && call.getSequence() > afterSequence) {
+        calls.add(call);
+      }
+    }
+    Collections.sort(calls, BY_SEQUENCE);
+    if (limit > 0 && calls.size() > limit) {
+      calls = calls.subList(calls.size() - limit, calls.size());
+    }
+    return SlowCalls.newBuilder()
+        .addAllCalls(calls)
+        .setRecorded(sequence.get())
+        .setThresholdMicros(TimeUnit.NANOSECONDS.toMicros(thresholdNanos))
+        .build();
+  }
+
+  @Override
+  public String toString() {
+    return "SlowCallRecorder{threshold=" + TimeUnit.NANOSECONDS.toMillis(thresholdNanos)
+        + "ms, size=" + slots.length() + ", recorded=" + sequence.get() + "}";
+  }
+
+  private void record(RecordedCall<?, ?> call, Status status, long endNanos) {
+    long start = call.startNanos;
+    long sequence = this.sequence.incrementAndGet();
+    SlowCall slowCall = SlowCall.newBuilder()
+        .setSequence(sequence)
+        .setMethod(call.getMethodDescriptor().getFullMethodName())
+        .setStartTimeMillis(System.currentTimeMillis()
+            - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+        .setFirstRequest(describe(call.firstRequest))
+        .setRequests(call.requests)
+        .setResponses(call.responses)
+        .setFirstRequestMicros(sinceStart(start, call.firstRequestNanos))
+        .setHalfCloseMicros(sinceStart(start, call.halfCloseNanos))
+        .setFirstResponseMicros(sinceStart(start, call.firstResponseNanos))
+        .setEndMicros(sinceStart(start, endNanos))
+        .setStatusCode(status.getCode().name())
+        .setStatusDescription(status.getDescription() != null ? status.getDescription() : "")
+        .build();
+    // Writers that wrap around onto the same slot at once may leave the older call in it, which
+    // readers can tell from its sequence number.
+    slots.set((int) (sequence & mask), slowCall);
+  }
+
+  private static long sinceStart(long startNanos, long nanos) {
+    return nanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMicros(nanos - startNanos);
+  }
+
+  private static String describe(Object request) {
+    if (request == null) {
+      return "";
+    }
+    String text = request.getClass().getSimpleName();
+    // Anything else is e.g. the still serialized point of a raw RecordRoute.
+    if (request instanceof MessageOrBuilder) {
+      text += " {" + TextFormat.shortDebugString((MessageOrBuilder) request) + "}";
+    }
+    return text.length() > MAX_REQUEST_CHARS ? text.substring(0, MAX_REQUEST_CHARS) + "..." : text;
+  }
+
+  /**
+   * Records the server's side of a call.
+   *
+   * <p>The client's side is written and read by the listener, whose callbacks are serialized.
+   * The server's side is written by whichever thread sends, such as a {@link ListFeaturesEmitter}
+   * scan thread, while the listener reads it on the server's executor, so those fields are
+   * volatile. Sends are still serialized, as {@link ServerCall} requires, so incrementing
+   * {@code responses} loses no counts.
+   */
+  private static final class RecordedCall<ReqT, RespT>
+      extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+    final SlowCallRecorder recorder;
+    final long startNanos;
+    Object firstRequest;
+    long requests;
+    long firstRequestNanos;
+    long halfCloseNanos;
+    volatile long responses;
+    volatile long firstResponseNanos;
+    volatile Status status;
+
+    RecordedCall(ServerCall<ReqT, RespT> delegate, SlowCallRecorder recorder) {
+      super(delegate);
+      this.recorder = recorder;
+      this.startNanos = recorder.now;
+    }
+
+    @Override
+    public void sendMessage(RespT message) {
+      long sent = responses;
+      if (sent == 0) {
+        firstResponseNanos = recorder.now;
+      }
+      responses = sent + 1;
+      super.sendMessage(message);
+    }
+
+    @Override
+    public void close(Status status, Metadata trailers) {
+      this.status = status;
+      super.close(status, trailers);
+    }
+  }
+
+  /** Records the client's side of a call and decides whether to keep it once it ends. */
+  private final class RecordedListener<ReqT>
+      extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
+    private final RecordedCall<ReqT, ?> call;
+
+    RecordedListener(ServerCall.Listener<ReqT> delegate, RecordedCall<ReqT, ?> call) {
+      super(delegate);
+      this.call = call;
+    }
+
+    @Override
+    public void onMessage(ReqT message) {
+      if (call.requests++ == 0) {
+        call.firstRequestNanos = now;
+        call.firstRequest = message;
+      }
+      super.onMessage(message);
+    }
+
+    @Override
+    public void onHalfClose() {
+      call.halfCloseNanos = now;
+      super.onHalfClose();
+    }
+
+    @Override
+    public void onComplete() {
+      try {
+        super.onComplete();
+      } finally {
+        ended(call.status != null ? call.status : Status.OK);
+      }
+    }
+
+    @Override
+    public void onCancel() {
+      try {
+        super.onCancel();
+      } finally {
+        // Distinguishes deadlines from cancellations by the client or the transport.
+        Status status = Contexts.statusFromCancelled(Context.current());
+        ended(status != null ? status : Status.CANCELLED);
+      }
+    }
+
+    private void ended(Status status) {
+      long endNanos = now;
+      long from = call.halfCloseNanos != 0 ? call.halfCloseNanos : call.startNanos;
+      if (status.isOk() && endNanos - from <= thresholdNanos) {
+        return;
+      }
+      record(call, status, endNanos);
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid over the coordinates of a {@link FeatureStore}, answering rectangle queries by
+ * visiting only the cells the rectangle overlaps.
+ *
+ * <p>The grid is stored in compressed sparse row form: {@code entries} holds the feature indices
+ * ordered by cell, and the features of cell {@code c} are {@code entries[cellStart[c]]} up to
+ * {@code entries[cellStart[c + 1]]}, in store order. The grid covers the bounding box of the
+ * store and has about {@link #FEATURES_PER_CELL} features per cell on average, so the cost of a
+ * query depends on the size of the rectangle rather than on the size of the database.
+ */
+final class SpatialIndex {
+  /** The average number of features per cell the grid is sized for. */
+  static final int FEATURES_PER_CELL = 4;
+  /** The maximum number of columns and rows. */
+  private static final int MAX_CELLS_PER_AXIS = 4096;
+  /** A longitude span that covers every longitude around any point. */
+  static final long WHOLE_LONGITUDE_SPAN = 1L << 32;
+  // The earth radius used by RouteGuideUtil.calcDistance.
+  private static final double METERS_PER_DEGREE = 6371000 * Math.PI / 180;
+  private static final double COORD_FACTOR = 1e7;
+  private static final long MAX_LATITUDE = 900_000_000;
+
+  private final int[] latitudes;
+  private final int[] longitudes;
+  final int minLatitude;
+  final int minLongitude;
+  final long cellHeight;
+  final long cellWidth;
+  final int rows;
+  final int columns;
+  final int[] cellStart;
+  final int[] entries;
+
+  /** Builds the index of the given coordinate columns. */
+  SpatialIndex(int[] latitudes, int[] longitudes) {
+    this.latitudes = latitudes;
+    this.longitudes = longitudes;
+    int count = latitudes.length;
+    int minLat = Integer.MAX_VALUE;
+    int maxLat = Integer.MIN_VALUE;
+    int minLon = Integer.MAX_VALUE;
+    int maxLon = Integer.MIN_VALUE;
+    for (int i = 0; i < count; i++) {
+      minLat = Math.min(minLat, latitudes[i]);
+      maxLat = Math.max(maxLat, latitudes[i]);
+      minLon = Math.min(minLon, longitudes[i]);
+      maxLon = Math.max(maxLon, longitudes[i]);
+    }
+    if (count == 0) {
+      minLat = maxLat = minLon = maxLon = 0;
+    }
+    int perAxis = (int) Math.min(MAX_CELLS_PER_AXIS,
+        Math.max(1, Math.ceil(Math.sqrt(count / (double) FEATURES_PER_CELL))));
+    this.minLatitude = minLat;
+    this.minLongitude = minLon;
+    this.rows = perAxis;
+    this.columns = perAxis;
+    this.cellHeight = ((long) maxLat - minLat) / rows + 1;
+    this.cellWidth = ((long) maxLon - minLon) / columns + 1;
+
+    // Counting sort of the features by cell.
+    this.cellStart = new int[rows * columns + 1];
+    int[] cells = new int[count];
+    for (int i = 0; i < count; i++) {
+      cells[i] = cell(latitudes[i], longitudes[i]);
+      cellStart[cells[i] + 1]++;
+    }
+    for (int c = 0; c < rows * columns; c++) {
+      cellStart[c + 1] += cellStart[c];
+    }
+    this.entries = new int[count];
+    int[] next = new int[rows * columns];
+    for (int i = 0; i < count; i++) {
+      entries[cellStart[cells[i]] + next[cells[i]]++] = i;
+    }
+  }
+
+  /**
+   * Restores an index from the fields of an earlier one, as written by {@link FeatureSnapshot}.
+   */
+  SpatialIndex(int[] latitudes, int[] longitudes, int minLatitude, int minLongitude,
+      long cellHeight, long cellWidth, int rows, int columns, int[] cellStart, int[] entries) {
+    this.latitudes = latitudes;
+    this.longitudes = longitudes;
+    this.minLatitude = minLatitude;
+    this.minLongitude = minLongitude;
+    this.cellHeight = cellHeight;
+    this.cellWidth = cellWidth;
+    this.rows = rows;
+    this.columns = columns;
+    this.cellStart = cellStart;
+    this.entries = entries;
+  }
+
+  /**
+   * Returns the number of E7 degrees of latitude that a distance of {@code meters} as reported by
+   * {@code RouteGuideUtil.calcDistance} may span, rounded up. That method truncates to whole
+   * metres, hence the extra metre.
+   */
+  static long latitudeSpan(int meters) {
+    return (long) Math.ceil((meters + 1.0) / METERS_PER_DEGREE * COORD_FACTOR) + 1;
+  }
+
+  /**
+   * Returns the number of E7 degrees of longitude that {@code latitudeSpan} spans at latitudes
+   * up to {@code maxAbsLatitude}, where a degree of longitude is shortest. Returns
+   * {@link #WHOLE_LONGITUDE_SPAN} if the latitudes reach a pole.
+   */
+  static long longitudeSpan(long latitudeSpan, long maxAbsLatitude) {
+    if (maxAbsLatitude >= MAX_LATITUDE) {
+      return WHOLE_LONGITUDE_SPAN;
+    }
+    return Math.min(WHOLE_LONGITUDE_SPAN, (long) Math.ceil(
+        latitudeSpan / Math.cos(Math.toRadians(maxAbsLatitude / COORD_FACTOR))) + 1);
+  }
+
+  private int cell(int latitude, int longitude) {
+    return row(latitude) * columns + column(longitude);
+  }
+
+  private int row(long latitude) {
+    return (int) Math.max(0, Math.min(rows - 1, (latitude - minLatitude) / cellHeight));
+  }
+
+  private int column(long longitude) {
+    return (int) Math.max(0, Math.min(columns - 1, (longitude - minLongitude) / cellWidth));
+  }
+
+  /**
+   * Passes the index of each feature within the given bounds (inclusive) to {@code consumer},
+   * cell by cell.
+   */
+  void query(long left, long right, long bottom, long top, IntConsumer consumer) {
+    if (left > right || bottom > top) {
+      return;
+    }
+    int lastRow = row(top);
+    int firstColumn = column(left);
+    int lastColumn = column(right);
+    for (int row = row(bottom); row <= lastRow; row++) {
+      // The cells of a row are adjacent, so the whole span is one run of entries.
+      int end = cellStart[row * columns + lastColumn + 1];
+      for (int e = cellStart[row * columns + firstColumn]; e < end; e++) {
+        int i = entries[e];
+        int lat = latitudes[i];
+        int lon = longitudes[i];
+        if (lon >= left && lon <= right && lat >= bottom && lat <= top) {
+          consumer.accept(i);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import com.google.common.net.HostAndPort;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves targets of the form {@code routeguide-static:///host1:port1,host2:port2} to the listed
+ * addresses, one backend each, for trying out load balancing against local servers.
+ *
+ * <p>The result selects the {@value LeastRequestLoadBalancerProvider#POLICY_NAME} policy through
+ * its service config. A channel built with {@code defaultLoadBalancingPolicy} and
+ * {@code disableServiceConfigLookUp()} can use another policy for comparison. Host names are
+ * looked up once, when the resolver starts. The provider is registered through
+ * {@code META-INF/services}.
+ */
+public final class StaticNameResolverProvider extends NameResolverProvider {
+  public static final String SCHEME = "routeguide-static";
+
+  @Override
+  protected boolean isAvailable() {
+    return true;
+  }
+
+  @Override
+  protected int priority() {
+    return 5;
+  }
+
+  @Override
+  public String getDefaultScheme() {
+    return SCHEME;
+  }
+
+  @Override
+  public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+    return Collections.<Class<? extends SocketAddress>>singleton(InetSocketAddress.class);
+  }
+
+  @Override
+  public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+    if (!SCHEME.equals(targetUri.getScheme())) {
+      return null;
+    }
+    String path = targetUri.getPath();
+    if (path == null || path.length() <= 1) {
+      throw new IllegalArgumentException("Expected " + SCHEME + ":///host:port,... but got "
+          + targetUri);
+    }
+    List<HostAndPort> backends = new ArrayList<>();
+    for (String backend : path.substring(1).split(",")) {
+      backends.add(HostAndPort.fromString(backend).requireBracketsForIPv6());
+    }
+    return new StaticNameResolver(backends, args);
+  }
+
+  private static final class StaticNameResolver extends NameResolver {
+    private final List<HostAndPort> backends;
+    private final Args args;
+
+    StaticNameResolver(List<HostAndPort> backends, Args args) {
+      this.backends = backends;
+      this.args = args;
+    }
+
+    @Override
+    public String getServiceAuthority() {
+      return backends.get(0).toString();
+    }
+
+    @Override
+    public void start(Listener2 listener) {
+      List<EquivalentAddressGroup> groups = new ArrayList<>();
+      for (HostAndPort backend : backends) {
+        InetSocketAddress address =
+            new InetSocketAddress(backend.getHost(), backend.getPort());
+        if (address.isUnresolved()) {
+          listener.onError(Status.UNAVAILABLE.withDescription("Cannot resolve " + backend));
+          return;
+        }
+        groups.add(new EquivalentAddressGroup(address));
+      }
+      Map<String, ?> serviceConfig = Collections.singletonMap("loadBalancingConfig",
+          Collections.singletonList(Collections.singletonMap(
+              LeastRequestLoadBalancerProvider.POLICY_NAME, Collections.emptyMap())));
+      listener.onResult(ResolutionResult.newBuilder()
+          .setAddresses(groups)
+          .setServiceConfig(args.getServiceConfigParser().parseServiceConfig(serviceConfig))
+          .build());
+    }
+
+    @Override
+    public void shutdown() {}
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+/**
+ * Filters packed coordinate columns against a rectangle, producing a bitmap of the matches.
+ *
+ * <p>This is the Java 17 version. It uses {@link VectorBoundsFilter} when the
+ * {@code jdk.incubator.vector} module has been added to the JVM, and {@link ScalarBoundsFilter}
+ * otherwise.
+ */
+final class BoundsFilter {
+  private static final boolean VECTOR =
+      ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  private BoundsFilter() {}
+
+  /**
+   * Sets bit {@code i - from} of {@code matches} for each index {@code i} in {@code [from, to)}
+   * whose coordinates lie within the given bounds (inclusive) and clears the other bits of the
+   * {@code (to - from + 63) / 64} words it writes.
+   *
+   * @return the number of matches
+   */
+  static int filter(int[] latitudes, int[] longitudes, int from, int to, int left, int right,
+      int bottom, int top, long[] matches) {
+    if (VECTOR) {
+      return VectorBoundsFilter.filter(
+          latitudes, longitudes, from, to, left, right, bottom, top, matches);
+    }
+    return ScalarBoundsFilter.filter(
+        latitudes, longitudes, from, to, left, right, bottom, top, matches);
+  }
+
+  /** Describes the implementation in use. */
+  static String implementation() {
+    return VECTOR ? VectorBoundsFilter.describe() : "scalar";
+  }
+}
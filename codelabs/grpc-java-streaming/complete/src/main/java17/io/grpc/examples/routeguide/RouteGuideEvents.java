@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder events describing the work of {@link RouteGuideServer}'s service.
+ *
+ * <p>This is the Java 17 version. The events are enabled by default but, like the JDK's own
+ * events, only recorded while a recording is running, and carry no stack traces. The frequent
+ * GetFeature and RouteChat note events are only recorded from a threshold; the
+ * {@code route-guide.jfc} settings in the distribution's {@code jfr} directory record them all.
+ */
+final class RouteGuideEvents {
+  private RouteGuideEvents() {}
+
+  @Name("io.grpc.examples.routeguide.GetFeature")
+  @Label("GetFeature")
+  @Description("A GetFeature lookup")
+  @Category({"gRPC", "RouteGuide"})
+  @StackTrace(false)
+  @Threshold("1 ms")
+  static final class GetFeature extends Event {
+    @Label("Latitude")
+    int latitude;
+
+    @Label("Longitude")
+    int longitude;
+
+    @Label("Found")
+    @Description("Whether a named feature exists at the location")
+    boolean found;
+  }
+
+  @Name("io.grpc.examples.routeguide.ListFeatures")
+  @Label("ListFeatures")
+  @Description("A ListFeatures call, from its start until its last feature was sent or it was"
+      + " cancelled")
+  @Category({"gRPC", "RouteGuide"})
+  @StackTrace(false)
+  static final class ListFeatures extends Event {
+    @Label("Source")
+    @Description("Where the candidates came from: cache, scan or shared scan")
+    String source;
+
+    @Label("Scanned")
+    @Description("Features scanned by a complete scan this call ran, 0 if its candidates"
+        + " came from the cache or another call's scan")
+    int scanned;
+
+    @Label("Candidates")
+    @Description("Candidates checked against the requested rectangle")
+    int candidates;
+
+    @Label("Returned")
+    @Description("Features sent to the client")
+    int returned;
+
+    @Label("Cancelled")
+    @Description("Whether the call ended before all features were sent")
+    boolean cancelled;
+  }
+
+  @Name("io.grpc.examples.routeguide.RecordRoute")
+  @Label("RecordRoute")
+  @Description("A RecordRoute stream, from its start until the summary was sent or it was"
+      + " cancelled")
+  @Category({"gRPC", "RouteGuide"})
+  @StackTrace(false)
+  static final class RecordRoute extends Event {
+    @Label("Points")
+    int points;
+
+    @Label("Features")
+    @Description("Features passed by the route")
+    int features;
+
+    @Label("Distance")
+    @Description("Distance covered, in metres")
+    int distance;
+
+    @Label("Cancelled")
+    boolean cancelled;
+  }
+
+  @Name("io.grpc.examples.routeguide.RouteChatNote")
+  @Label("RouteChat Note")
+  @Description("One RouteChat note and the previous notes at its location that were sent back")
+  @Category({"gRPC", "RouteGuide"})
+  @StackTrace(false)
+  @Threshold("1 ms")
+  static final class RouteChatNote extends Event {
+    @Label("Latitude")
+    int latitude;
+
+    @Label("Longitude")
+    int longitude;
+
+    @Label("Fan-out")
+    @Description("Previous notes sent back")
+    int fanOut;
+  }
+}
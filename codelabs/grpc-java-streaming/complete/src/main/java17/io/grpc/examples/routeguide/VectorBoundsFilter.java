@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD implementation of {@link BoundsFilter}. Each step compares a whole vector of
+ * latitudes and longitudes against the four bounds and turns the resulting lane mask straight
+ * into bits of the match bitmap.
+ */
+final class VectorBoundsFilter {
+  /** The most lanes that the int lane bits and the 64-bit words of the bitmap can hold. */
+  private static final int MAX_LANES = 16;
+  private static final VectorSpecies<Integer> SPECIES = species();
+  // Lane i holds 1 << i. JDK 17 cannot turn a mask into bits without allocating, but selecting
+  // these weights with it and OR-ing the lanes together compiles to a few vector instructions.
+  private static final IntVector LANE_BITS = IntVector.fromArray(SPECIES, laneBits(), 0);
+  private static final IntVector ZERO = IntVector.zero(SPECIES);
+
+  private VectorBoundsFilter() {}
+
+  /** See {@link BoundsFilter#filter}. */
+  static int filter(int[] latitudes, int[] longitudes, int from, int to, int left, int right,
+      int bottom, int top, long[] matches) {
+    // At most MAX_LANES lanes, a power of two, so a whole number of vectors fills one word.
+    int lanes = SPECIES.length();
+    int count = 0;
+    int word = 0;
+    int start = from;
+    for (; start + 64 <= to; word++, start += 64) {
+      long bits = 0;
+      for (int lane = 0; lane < 64; lane += lanes) {
+        IntVector lat = IntVector.fromArray(SPECIES, latitudes, start + lane);
+        IntVector lon = IntVector.fromArray(SPECIES, longitudes, start + lane);
+        VectorMask<Integer> inside = lon.compare(VectorOperators.GE, left)
+            .and(lon.compare(VectorOperators.LE, right))
+            .and(lat.compare(VectorOperators.GE, bottom))
+            .and(lat.compare(VectorOperators.LE, top));
+        long laneBits = ZERO.blend(LANE_BITS, inside).reduceLanes(VectorOperators.OR);
+        bits |= laneBits << lane;
+      }
+      matches[word] = bits;
+      count += Long.bitCount(bits);
+    }
+    if (start < to) {
+      long bits = 0;
+      for (int i = start; i < to; i++) {
+        int lat = latitudes[i];
+        int lon = longitudes[i];
+        if (lon >= left && lon <= right && lat >= bottom && lat <= top) {
+          bits |= 1L << (i - start);
+        }
+      }
+      matches[word] = bits;
+      count += Long.bitCount(bits);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the preferred species, narrowed to at most {@link #MAX_LANES} lanes and a power of two
+   * of them, e.g. for the wide or odd vector sizes of ARM SVE.
+   */
+  private static VectorSpecies<Integer> species() {
+    int bits = Math.min(IntVector.SPECIES_PREFERRED.vectorBitSize(), MAX_LANES * Integer.SIZE);
+    VectorSpecies<Integer> species =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(Integer.highestOneBit(bits)));
+    int lanes = species.length();
+    if (lanes > MAX_LANES || 64 % lanes != 0) {
+      throw new IllegalStateException("Unsupported vector species: " + species);
+    }
+    return species;
+  }
+
+  private static int[] laneBits() {
+    int[] laneBits = new int[SPECIES.length()];
+    for (int i = 0; i < laneBits.length; i++) {
+      laneBits[i] = 1 << i;
+    }
+    return laneBits;
+  }
+
+  static String describe() {
+    return "vector(" + SPECIES.vectorBitSize() + " bits)";
+  }
+}
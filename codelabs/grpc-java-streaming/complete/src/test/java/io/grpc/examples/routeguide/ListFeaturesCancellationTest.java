@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 The gRPC Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.grpc.examples.routeguide;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import io.grpc.Context;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.grpc.testing.GrpcCleanupRule;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Checks that a ListFeatures scan over a large database stops once its caller is gone, rather
+ * than only failing the call once the scan is done.
+ */
+@RunWith(JUnit4.class)
+public class ListFeaturesCancellationTest {
+  /** Large enough that scanning it takes several times {@link #DEADLINE_MILLIS}. */
+  private static final int FEATURES = 8 << 20;
+  private static final int DISTINCT_FEATURES = 1 << 16;
+  private static final long DEADLINE_MILLIS = 20;
+  private static final Rectangle EVERYWHERE = Rectangle.newBuilder()
+      .setLo(Point.newBuilder().setLatitude(-900_000_000).setLongitude(-1_800_000_000))
+      .setHi(Point.newBuilder().setLatitude(900_000_000).setLongitude(1_800_000_000))
+      .build();
+
+  private static FeatureStore store;
+
+  @Rule
+  public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
+
+  private RouteGuideServer server;
+  private ManagedChannel channel;
+
+  /** Builds a store in which every feature matches {@link #EVERYWHERE}. */
+  @BeforeClass
+  public static void createStore() {
+    final List<Feature> distinct = new ArrayList<>(DISTINCT_FEATURES);
+    for (int i = 0; i < DISTINCT_FEATURES; i++) {
+      distinct.add(Feature.newBuilder()
+          .setName("Feature " + i)
+          .setLocation(Point.newBuilder()
+              .setLatitude((i % 256) * 6_000_000 - 768_000_000)
+              .setLongitude((i / 256) * 12_000_000 - 1_536_000_000))
+          .build());
+    }
+    store = new FeatureStore(new AbstractList<Feature>() {
+      @Override
+      public Feature get(int index) {
+        return distinct.get(index % DISTINCT_FEATURES);
+      }
+
+      @Override
+      public int size() {
+        return FEATURES;
+      }
+    });
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    String name = InProcessServerBuilder.generateName();
+    server = new RouteGuideServer(
+        InProcessServerBuilder.forName(name), 0, store, new RouteGuideOptions());
+    server.start();
+    channel = grpcCleanup.register(InProcessChannelBuilder.forName(name).build());
+    // Warm up the call path, so that short deadlines do not expire before the scan starts.
+    RouteGuideGrpc.newBlockingStub(channel).getFeature(Point.getDefaultInstance());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.stop();
+  }
+
+  @Test
+  public void deadlineStopsScan() throws Exception {
+    Iterator<Feature> features = RouteGuideGrpc.newBlockingStub(channel)
+        .withDeadlineAfter(DEADLINE_MILLIS, TimeUnit.MILLISECONDS)
+        .listFeatures(EVERYWHERE);
+    try {
+      while (features.hasNext()) {
+        features.next();
+      }
+      fail("ListFeatures finished within its deadline");
+    } catch (StatusRuntimeException e) {
+      assertEquals(Status.Code.DEADLINE_EXCEEDED, e.getStatus().getCode());
+    }
+
+    assertScanAbandoned();
+  }
+
+  @Test
+  public void clientCancellationStopsScan() throws Exception {
+    final FeatureScanner scanner = server.scanner();
+    final CompletableFuture<Status> result = new CompletableFuture<>();
+    Context.CancellableContext context = Context.current().withCancellation();
+    context.run(new Runnable() {
+      @Override
+      public void run() {
+        RouteGuideGrpc.newStub(channel).listFeatures(EVERYWHERE, new StreamObserver<Feature>() {
+          @Override
+          public void onNext(Feature feature) {}
+
+          @Override
+          public void onError(Throwable t) {
+            result.complete(Status.fromThrowable(t));
+          }
+
+          @Override
+          public void onCompleted() {
+            result.complete(Status.OK);
+          }
+        });
+      }
+    });
+    awaitTrue(new BooleanSupplier() {
+      @Override
+      public boolean getAsBoolean() {
+        return scanner.scanCount() == 1;
+      }
+    });
+    context.cancel(null);
+
+    assertEquals(Status.Code.CANCELLED, result.get(5, TimeUnit.SECONDS).getCode());
+    assertScanAbandoned();
+  }
+
+  /** Waits for the one scan of the test to stop and checks that it skipped part of the store. */
+  private void assertScanAbandoned() throws InterruptedException {
+    final FeatureScanner scanner = server.scanner();
+    awaitTrue(new BooleanSupplier() {
+      @Override
+      public boolean getAsBoolean() {
+        return scanner.abortedScanCount() == 1;
+      }
+    });
+    assertEquals(1, scanner.scanCount());
+    assertTrue("Skipped " + scanner.featuresSkipped() + " of " + FEATURES + " features",
+        scanner.featuresSkipped() > 0);
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() - deadline > 0) {
+        fail("Timed out");
+      }
+      Thread.sleep(1);
+    }
+  }
+}